@@ -0,0 +1,170 @@
+package com.github.ialokim.phonefield.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Normalizes a CSV file of phone numbers in parallel.
+ * <p>
+ * The input is memory-mapped and split into chunks ending at line boundaries, which are
+ * normalized by a pool of worker threads. The results are written in input order; at most a few
+ * chunks per thread are in flight, so memory use does not depend on the size of the input.
+ */
+public class BulkNormalizer {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Lines must be shorter than this, a chunk is extended by at most this many bytes to end at
+     * a line boundary.
+     */
+    static final int MAX_LINE_LENGTH = 1024 * 1024;
+
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 4;
+
+    private final LineNormalizer mNormalizer;
+
+    private final int mThreads;
+
+    private final int mChunkSize;
+
+    private final boolean mHeader;
+
+    /**
+     * Creates a new normalizer.
+     *
+     * @param normalizer normalizes each line
+     * @param threads    the number of worker threads
+     * @param chunkSize  the approximate number of bytes normalized at once by a worker
+     * @param header     whether the first line is a header
+     */
+    public BulkNormalizer(LineNormalizer normalizer, int threads, int chunkSize, boolean header) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive");
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+        mNormalizer = normalizer;
+        mThreads = threads;
+        mChunkSize = chunkSize;
+        mHeader = header;
+    }
+
+    /**
+     * Normalizes all lines of the input file into the output file.
+     *
+     * @param input  the UTF-8 encoded input file
+     * @param output the output file, replaced if it exists
+     * @return the number of records normalized, not counting the header
+     * @throws IOException if reading or writing fails or a line is too long
+     */
+    public long normalize(Path input, Path output) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(mThreads);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+            int maxPending = mThreads * CHUNKS_IN_FLIGHT_PER_THREAD;
+            long records = 0;
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                final MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(size - position, (long) mChunkSize + MAX_LINE_LENGTH));
+                final int length = getChunkLength(mapped, position + mapped.capacity() == size);
+                final boolean first = position == 0;
+                pending.add(executor.submit(new Callable<Chunk>() {
+                    @Override
+                    public Chunk call() {
+                        return normalizeChunk(mapped, length, first && mHeader);
+                    }
+                }));
+                position += length;
+                if (pending.size() >= maxPending)
+                    records += write(pending.poll(), out);
+            }
+            while (!pending.isEmpty()) {
+                records += write(pending.poll(), out);
+            }
+            return records;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds the end of the chunk at the first line boundary after the chunk size.
+     */
+    private int getChunkLength(MappedByteBuffer mapped, boolean last) throws IOException {
+        int capacity = mapped.capacity();
+        if (capacity <= mChunkSize)
+            return capacity;
+        for (int i = mChunkSize - 1; i < capacity; i++) {
+            if (mapped.get(i) == '\n')
+                return i + 1;
+        }
+        if (last)
+            return capacity;
+        throw new IOException("Line longer than " + MAX_LINE_LENGTH + " bytes");
+    }
+
+    private Chunk normalizeChunk(MappedByteBuffer mapped, int length, boolean header) {
+        byte[] bytes = new byte[length];
+        mapped.get(bytes);
+        StringBuilder out = new StringBuilder(length + length / 2);
+        int records = 0;
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && bytes[end] != '\n') {
+                end++;
+            }
+            int lineEnd = end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+            String line = new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8);
+            if (header) {
+                mNormalizer.appendHeader(line, out);
+                header = false;
+            } else {
+                mNormalizer.appendNormalized(line, out);
+                records++;
+            }
+            out.append('\n');
+            start = end + 1;
+        }
+        return new Chunk(StandardCharsets.UTF_8.encode(out.toString()), records);
+    }
+
+    private static int write(Future<Chunk> future, FileChannel out) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        while (chunk.mData.hasRemaining()) {
+            out.write(chunk.mData);
+        }
+        return chunk.mRecords;
+    }
+
+    private static final class Chunk {
+        final ByteBuffer mData;
+        final int mRecords;
+
+        Chunk(ByteBuffer data, int records) {
+            mData = data;
+            mRecords = records;
+        }
+    }
+}
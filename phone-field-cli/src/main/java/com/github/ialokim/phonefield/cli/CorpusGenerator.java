@@ -0,0 +1,290 @@
+package com.github.ialokim.phonefield.cli;
+
+import com.github.ialokim.phonefield.Country;
+import com.github.ialokim.phonefield.CountryData;
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a deterministic corpus of phone number inputs for benchmarks and replay tests,
+ * covering every region of {@link CountryData} that libphonenumber has metadata for and every
+ * number type with an example number.
+ * <p>
+ * The corpus is written as CSV with the columns {@code kind,region,type,input,e164}: the kind of
+ * input, the region and type the number was derived from, the input as a user would type or paste
+ * it, and the expected E.164 number, which is empty if the input is not a valid number. Inputs
+ * are expected to be read like {@code PhoneField} does, i.e. a leading 00 is an international
+ * prefix and pasted numbers are extracted from the text. The same seed and mix always give the
+ * same corpus.
+ */
+final class CorpusGenerator {
+
+    /**
+     * The kinds of inputs, in the order of the weights of a mix.
+     */
+    enum Kind {
+        /** A valid number in E.164 or international format. */
+        VALID,
+        /** A number with a digit removed or added, which makes it invalid. */
+        INVALID,
+        /** The beginning of a valid number, as while typing. */
+        PARTIAL,
+        /** A valid number within some text. */
+        PASTED,
+        /** A valid number with national formatting or other separators. */
+        PUNCTUATED
+    }
+
+    static final String DEFAULT_MIX = "valid=40,invalid=15,partial=15,pasted=15,punctuated=15";
+
+    private static final String[] PASTE_TEMPLATES = {
+            "Call me at %s",
+            "%s",
+            "Tel.: %s (mobile)",
+            "You can reach our office under %s between 9 and 5.",
+            "Phone: %s\tFax: none",
+            "my number is %s, thanks!",
+    };
+
+    private static final String[] SEPARATORS = {" ", "-", ".", "/", ""};
+
+    /**
+     * Valid variants generated per region and type; validating a variant is expensive, so records
+     * pick one of these.
+     */
+    private static final int VARIANTS = 16;
+
+    private final PhoneNumberUtil mUtil = PhoneNumberUtil.getInstance();
+
+    private final Random mRandom;
+
+    private final int[] mWeights;
+
+    private final int mTotalWeight;
+
+    private final List<Example> mExamples = new ArrayList<>();
+
+    /**
+     * Creates a new generator.
+     *
+     * @param seed the seed of the random numbers
+     * @param mix  the weights of the kinds, e.g. {@link #DEFAULT_MIX}
+     */
+    CorpusGenerator(long seed, String mix) {
+        mRandom = new Random(seed);
+        mWeights = parseMix(mix);
+        int total = 0;
+        for (int weight : mWeights) {
+            total += weight;
+        }
+        if (total <= 0) throw new IllegalArgumentException("The mix needs a positive weight");
+        mTotalWeight = total;
+        Set<String> regions = new TreeSet<>();
+        for (Country country : CountryData.getCurrent().getAll()) {
+            regions.add(country.getCode().toUpperCase(Locale.US));
+        }
+        regions.retainAll(mUtil.getSupportedRegions());
+        for (String region : regions) {
+            for (PhoneNumberUtil.PhoneNumberType type : PhoneNumberUtil.PhoneNumberType.values()) {
+                if (type == PhoneNumberUtil.PhoneNumberType.UNKNOWN)
+                    continue;
+                Phonenumber.PhoneNumber example = mUtil.getExampleNumberForType(region, type);
+                if (example != null)
+                    mExamples.add(new Example(region, type, example));
+            }
+        }
+    }
+
+    /**
+     * Gets the number of region and type combinations, every one is used once per this many
+     * records.
+     *
+     * @return the number of combinations
+     */
+    int getCombinationCount() {
+        return mExamples.size();
+    }
+
+    /**
+     * Writes a corpus.
+     *
+     * @param out     where to write the CSV to, including a header line
+     * @param records the number of records
+     * @throws IOException if writing fails
+     */
+    void write(Writer out, long records) throws IOException {
+        out.write("kind,region,type,input,e164\n");
+        StringBuilder line = new StringBuilder(128);
+        for (long i = 0; i < records; i++) {
+            Example example = mExamples.get((int) (i % mExamples.size()));
+            Kind kind = nextKind();
+            Phonenumber.PhoneNumber number = vary(example);
+            String input;
+            String expected = mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
+            switch (kind) {
+                case VALID:
+                    input = mRandom.nextBoolean() ? expected
+                            : mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL);
+                    break;
+                case INVALID:
+                    input = invalidate(number);
+                    expected = "";
+                    break;
+                case PARTIAL:
+                    String full = mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL);
+                    input = full.substring(0, 2 + mRandom.nextInt(Math.max(1, full.length() - 3)));
+                    //in regions with numbers of different lengths, the beginning can be valid, too
+                    expected = getValidE164(input, example.mRegion);
+                    break;
+                case PASTED:
+                    input = String.format(Locale.US, PASTE_TEMPLATES[mRandom.nextInt(PASTE_TEMPLATES.length)],
+                            mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL));
+                    break;
+                default:
+                    input = punctuate(number);
+                    break;
+            }
+            line.setLength(0);
+            line.append(kind.name().toLowerCase(Locale.US)).append(',')
+                    .append(example.mRegion).append(',')
+                    .append(example.mType.name().toLowerCase(Locale.US)).append(',');
+            appendCsv(line, input);
+            line.append(',').append(expected).append('\n');
+            out.append(line);
+        }
+    }
+
+    private Kind nextKind() {
+        int value = mRandom.nextInt(mTotalWeight);
+        for (int i = 0; i < mWeights.length; i++) {
+            value -= mWeights[i];
+            if (value < 0)
+                return Kind.values()[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    private Phonenumber.PhoneNumber vary(Example example) {
+        if (example.mVariants == null) {
+            example.mVariants = new Phonenumber.PhoneNumber[VARIANTS];
+            for (int i = 0; i < VARIANTS; i++) {
+                example.mVariants[i] = createVariant(example);
+            }
+        }
+        return example.mVariants[mRandom.nextInt(VARIANTS)];
+    }
+
+    /**
+     * Replaces the last digits of the example by random ones, keeping it valid and of the same
+     * type. Falls back to the example itself.
+     */
+    private Phonenumber.PhoneNumber createVariant(Example example) {
+        String national = mUtil.getNationalSignificantNumber(example.mNumber);
+        int replace = Math.min(4, national.length() - 2);
+        for (int attempt = 0; attempt < 5 && replace > 0; attempt++) {
+            StringBuilder digits = new StringBuilder(national.substring(0, national.length() - replace));
+            for (int i = 0; i < replace; i++) {
+                digits.append((char) ('0' + mRandom.nextInt(10)));
+            }
+            Phonenumber.PhoneNumber number = parse("+" + example.mNumber.getCountryCode() + digits, example.mRegion);
+            if (number != null && mUtil.isValidNumber(number) && mUtil.getNumberType(number) == example.mType)
+                return number;
+        }
+        return example.mNumber;
+    }
+
+    private String invalidate(Phonenumber.PhoneNumber number) {
+        String national = mUtil.getNationalSignificantNumber(number);
+        String prefix = "+" + number.getCountryCode();
+        for (int attempt = 0; attempt < 5; attempt++) {
+            String digits = mRandom.nextBoolean() && national.length() > 2
+                    ? national.substring(0, national.length() - 1)
+                    : national + (char) ('0' + mRandom.nextInt(10));
+            Phonenumber.PhoneNumber invalid = parse(prefix + digits, null);
+            if (invalid == null || !mUtil.isValidNumber(invalid))
+                return prefix + digits;
+            national = digits;
+        }
+        //too short for any region
+        return prefix + "0";
+    }
+
+    private String punctuate(Phonenumber.PhoneNumber number) {
+        switch (mRandom.nextInt(5)) {
+            case 0:
+                return mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.NATIONAL);
+            case 1:
+                return mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.RFC3966);
+            case 2:
+                return "00" + mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164).substring(1);
+            default:
+                String separator = SEPARATORS[mRandom.nextInt(SEPARATORS.length)];
+                String international = mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL);
+                String[] groups = international.split("[ -]");
+                StringBuilder sb = new StringBuilder(groups[0]);
+                for (int i = 1; i < groups.length; i++) {
+                    sb.append(separator);
+                    //wrap the first group after the country code, like an area code
+                    sb.append(i == 1 && groups.length > 2 && mRandom.nextBoolean() ? "(" + groups[i] + ")" : groups[i]);
+                }
+                return sb.toString();
+        }
+    }
+
+    private String getValidE164(String input, String region) {
+        Phonenumber.PhoneNumber number = parse(input, region);
+        return number != null && mUtil.isValidNumber(number)
+                ? mUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164) : "";
+    }
+
+    private Phonenumber.PhoneNumber parse(String text, String region) {
+        try {
+            return mUtil.parse(text, region);
+        } catch (NumberParseException e) {
+            return null;
+        }
+    }
+
+    private static void appendCsv(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[Kind.values().length];
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2)
+                throw new IllegalArgumentException("Invalid mix: " + mix);
+            Kind kind = Kind.valueOf(entry[0].trim().toUpperCase(Locale.US));
+            weights[kind.ordinal()] = Integer.parseInt(entry[1].trim());
+        }
+        return weights;
+    }
+
+    private static final class Example {
+        final String mRegion;
+        final PhoneNumberUtil.PhoneNumberType mType;
+        final Phonenumber.PhoneNumber mNumber;
+        Phonenumber.PhoneNumber[] mVariants;
+
+        Example(String region, PhoneNumberUtil.PhoneNumberType type, Phonenumber.PhoneNumber number) {
+            mRegion = region;
+            mType = type;
+            mNumber = number;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.ialokim.phonefield.cli;
+
+import com.github.ialokim.phonefield.Countries;
+import com.github.ialokim.phonefield.CountryData;
+import com.github.ialokim.phonefield.LongHashSet;
+import com.github.ialokim.phonefield.PackedPhoneNumber;
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Measures the retained heap size of the library's data structures with JOL, so that footprint
+ * regressions show up when the results of two releases are compared.
+ * <p>
+ * Only what exists on a plain JVM is measured. Views and adapters need an Android heap dump;
+ * for the flags, the size of their decoded ARGB_8888 bitmaps is computed from the PNG headers.
+ */
+final class Footprint {
+
+    private static final int[] REGION_COUNTS = {1, 12};
+
+    private static final int NUMBERS = 100000;
+
+    private final PrintStream mOut;
+
+    Footprint(PrintStream out) {
+        mOut = out;
+    }
+
+    void run(File flagDirectory) throws IOException {
+        //sizes depend on the JVM, e.g. on compressed pointers, so only compare results of the same one
+        mOut.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        mOut.println("item\tbytes\tobjects");
+        print("Countries.COUNTRIES", GraphLayout.parseInstance(Countries.COUNTRIES));
+        print("CountryData snapshot", GraphLayout.parseInstance(CountryData.getCurrent()));
+
+        PhoneNumberUtil util = PhoneNumberUtil.getInstance();
+        List<String> regions = new ArrayList<>(new TreeSet<>(util.getSupportedRegions()));
+        print("PhoneNumberUtil without metadata", GraphLayout.parseInstance(util));
+        int loaded = 0;
+        for (int count : REGION_COUNTS) {
+            loaded = loadRegions(util, regions, loaded, count);
+            print("PhoneNumberUtil with metadata of " + count + (count == 1 ? " region" : " regions"), GraphLayout.parseInstance(util));
+        }
+        loadRegions(util, regions, loaded, regions.size());
+        print("PhoneNumberUtil with metadata of all " + regions.size() + " regions", GraphLayout.parseInstance(util));
+
+        List<Phonenumber.PhoneNumber> numbers = createNumbers(util, regions);
+        Set<Phonenumber.PhoneNumber> objects = new HashSet<>(numbers);
+        LongHashSet packed = new LongHashSet(numbers.size());
+        for (Phonenumber.PhoneNumber number : numbers) {
+            packed.add(PackedPhoneNumber.pack(number));
+        }
+        numbers.clear();
+        print("HashSet<PhoneNumber>, " + objects.size() + " numbers", GraphLayout.parseInstance(objects));
+        print("LongHashSet, " + packed.size() + " packed numbers", GraphLayout.parseInstance(packed));
+
+        if (flagDirectory != null)
+            printFlags(flagDirectory);
+        mOut.println("CountriesAdapter\tn/a\tn/a");
+        mOut.println("PhoneField with autoFormat\tn/a\tn/a");
+    }
+
+    private static int loadRegions(PhoneNumberUtil util, List<String> regions, int from, int to) {
+        for (int i = from; i < to && i < regions.size(); i++) {
+            //loads the metadata of the region
+            util.getExampleNumber(regions.get(i));
+        }
+        return to;
+    }
+
+    /**
+     * Creates distinct valid numbers by counting up from the example numbers of all regions.
+     */
+    private static List<Phonenumber.PhoneNumber> createNumbers(PhoneNumberUtil util, List<String> regions) {
+        List<Phonenumber.PhoneNumber> numbers = new ArrayList<>(NUMBERS);
+        int perRegion = NUMBERS / regions.size() + 1;
+        for (String region : regions) {
+            Phonenumber.PhoneNumber example = util.getExampleNumber(region);
+            if (example == null)
+                continue;
+            String e164 = util.format(example, PhoneNumberUtil.PhoneNumberFormat.E164);
+            long base = Long.parseLong(e164.substring(e164.length() - 4));
+            for (int i = 0; i < perRegion && numbers.size() < NUMBERS; i++) {
+                String digits = e164.substring(0, e164.length() - 4)
+                        + String.format(Locale.US, "%04d", (base + i) % 10000);
+                try {
+                    numbers.add(util.parse(digits, region));
+                } catch (NumberParseException ignored) {
+                }
+            }
+        }
+        return numbers;
+    }
+
+    private void printFlags(File directory) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null)
+            throw new IOException("Not a directory: " + directory);
+        long bytes = 0;
+        int count = 0;
+        for (File file : files) {
+            if (!file.getName().endsWith(".png"))
+                continue;
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                DataInputStream data = new DataInputStream(in);
+                //8 bytes signature, 4 bytes length and 4 bytes type of the IHDR chunk
+                data.skipBytes(16);
+                int width = data.readInt();
+                int height = data.readInt();
+                bytes += 4L * width * height;
+                count++;
+            }
+        }
+        mOut.println("Decoded flags, ARGB_8888 at the drawable density\t" + bytes + "\t" + count);
+    }
+
+    private void print(String item, GraphLayout layout) {
+        mOut.println(item + "\t" + layout.totalSize() + "\t" + layout.totalCount());
+    }
+}
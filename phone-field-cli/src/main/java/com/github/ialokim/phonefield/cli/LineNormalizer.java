@@ -0,0 +1,116 @@
+package com.github.ialokim.phonefield.cli;
+
+import com.github.ialokim.phonefield.Country;
+import com.github.ialokim.phonefield.CountryData;
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import java.util.Locale;
+
+/**
+ * Normalizes the phone number in one column of a CSV line with the same rules as
+ * {@code PhoneField}: the number is parsed with the default region and its country is detected
+ * from the current {@link CountryData}. Safe to use from several threads.
+ * <p>
+ * Three columns are appended to each line: the number as E.164, the ISO code of the detected
+ * country and whether the number is valid. Numbers that can't be parsed get empty columns.
+ */
+public class LineNormalizer {
+
+    private final PhoneNumberUtil mPhoneUtil = PhoneNumberUtil.getInstance();
+
+    private final int mColumn;
+
+    private final String mDefaultRegion;
+
+    /**
+     * Creates a new normalizer.
+     *
+     * @param column        the index of the column holding the number, starting at 0
+     * @param defaultRegion the ISO 3166 code of the region used for numbers without a country code
+     */
+    public LineNormalizer(int column, String defaultRegion) {
+        mColumn = column;
+        mDefaultRegion = defaultRegion.toUpperCase(Locale.US);
+    }
+
+    /**
+     * Appends the header of the added columns to the given header line.
+     *
+     * @param line the header line without line terminator
+     * @param out  where to append the result to, without line terminator
+     */
+    public void appendHeader(String line, StringBuilder out) {
+        out.append(line).append(",e164,country,valid");
+    }
+
+    /**
+     * Normalizes the number of the given line.
+     *
+     * @param line the line without line terminator
+     * @param out  where to append the result to, without line terminator
+     */
+    public void appendNormalized(String line, StringBuilder out) {
+        out.append(line).append(',');
+        String value = getColumn(line, mColumn);
+        if (value == null || value.isEmpty()) {
+            out.append(",,false");
+            return;
+        }
+        Phonenumber.PhoneNumber number;
+        try {
+            number = mPhoneUtil.parse(value, mDefaultRegion);
+        } catch (NumberParseException e) {
+            out.append(",,false");
+            return;
+        }
+        out.append(mPhoneUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164)).append(',');
+        Country country = CountryData.getCurrent().getCountry(number);
+        if (country != null)
+            out.append(country.getCode().toUpperCase(Locale.US));
+        out.append(',').append(mPhoneUtil.isValidNumber(number));
+    }
+
+    /**
+     * Gets a column of a CSV line, supporting quoted values.
+     *
+     * @return the unquoted value or {@code null} if the line has less columns
+     */
+    static String getColumn(String line, int column) {
+        int index = 0;
+        int i = 0;
+        int length = line.length();
+        while (i <= length) {
+            if (i < length && line.charAt(i) == '"') {
+                StringBuilder value = new StringBuilder();
+                i++;
+                while (i < length) {
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < length && line.charAt(i) == '"') {
+                            value.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        value.append(c);
+                    }
+                }
+                if (index == column)
+                    return value.toString();
+                int comma = line.indexOf(',', i);
+                i = comma < 0 ? length + 1 : comma + 1;
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? length : comma;
+                if (index == column)
+                    return line.substring(i, end).trim();
+                i = end + 1;
+            }
+            index++;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.ialokim.phonefield.cli;
+
+import com.github.ialokim.phonefield.Country;
+import com.github.ialokim.phonefield.StreamingNumberExtractor;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command-line entry point.
+ */
+public final class Main {
+
+    private static final String USAGE = "Usage:\n"
+            + "  normalize [options] <input.csv> <output.csv>\n"
+            + "      --column <n>     index of the column with the number, default 0\n"
+            + "      --region <iso>   region of numbers without country code, default US\n"
+            + "      --threads <n>    worker threads, default the number of processors\n"
+            + "      --header         the first line is a header\n"
+            + "      --stats          print records per second and peak memory to stderr\n"
+            + "  bench [--lines <n>] [--threads <n>] [--extract]\n"
+            + "      normalizes a generated file, default 10000000 lines, and prints the stats\n"
+            + "      --extract        finds the numbers in the file with the StreamingNumberExtractor\n"
+            + "                       instead and prints MB/s, default 1000000 lines\n"
+            + "  corpus [--records <n>] [--seed <n>] [--mix <weights>] <output.csv[.gz]>\n"
+            + "      writes a deterministic corpus of inputs of all regions and number types,\n"
+            + "      default 1000000 records, seed 42 and mix " + CorpusGenerator.DEFAULT_MIX + "\n"
+            + "  footprint [--flags <dir>] [--out <file>]\n"
+            + "      measures the retained heap size of the library's data, e.g. to record it per release\n";
+
+    private Main() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+        switch (args[0]) {
+            case "normalize": {
+                Options options = parse(args, Options.names("header", "stats"),
+                        Options.names("column", "region", "threads"));
+                if (options.mPaths.size() != 2)
+                    usage();
+                normalize(options, Paths.get(options.mPaths.get(0)), Paths.get(options.mPaths.get(1)));
+                break;
+            }
+            case "bench":
+                bench(parse(args, Options.names("extract"), Options.names("lines", "threads")));
+                break;
+            case "corpus": {
+                Options options = parse(args, Options.names(), Options.names("records", "seed", "mix"));
+                if (options.mPaths.size() != 1)
+                    usage();
+                corpus(options, Paths.get(options.mPaths.get(0)));
+                break;
+            }
+            case "footprint":
+                footprint(parse(args, Options.names(), Options.names("flags", "out")));
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static Options parse(String[] args, Set<String> flags, Set<String> options) {
+        try {
+            return new Options(args, flags, options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(args[0] + ": " + e.getMessage());
+            usage();
+            return null;
+        }
+    }
+
+    private static void normalize(Options options, Path input, Path output) throws IOException {
+        BulkNormalizer normalizer = new BulkNormalizer(
+                new LineNormalizer(options.getInt("column", 0), options.get("region", "US")),
+                options.getInt("threads", Runtime.getRuntime().availableProcessors()),
+                BulkNormalizer.DEFAULT_CHUNK_SIZE, options.has("header"));
+        long start = System.nanoTime();
+        long records = normalizer.normalize(input, output);
+        if (options.has("stats"))
+            printStats(records, System.nanoTime() - start);
+    }
+
+    private static void bench(Options options) throws IOException {
+        boolean extract = options.has("extract");
+        int lines = options.getInt("lines", extract ? 1000000 : 10000000);
+        Path input = Files.createTempFile("phonefield-bench", ".csv");
+        Path output = Files.createTempFile("phonefield-bench", ".out.csv");
+        try {
+            System.err.println("Generating " + lines + " lines...");
+            try (Writer writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+                new CorpusGenerator(42, CorpusGenerator.DEFAULT_MIX).write(writer, lines);
+            }
+            if (extract) {
+                benchExtraction(input);
+                return;
+            }
+            System.err.println("Normalizing...");
+            //the inputs are in the fourth column, the region of each record is not used
+            BulkNormalizer normalizer = new BulkNormalizer(new LineNormalizer(3, "US"),
+                    options.getInt("threads", Runtime.getRuntime().availableProcessors()),
+                    BulkNormalizer.DEFAULT_CHUNK_SIZE, true);
+            long start = System.nanoTime();
+            long records = normalizer.normalize(input, output);
+            printStats(records, System.nanoTime() - start);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    /**
+     * Streams the generated file through the extractor like a chat log or an imported document.
+     */
+    private static void benchExtraction(Path input) throws IOException {
+        System.err.println("Extracting...");
+        final long[] numbers = new long[1];
+        long start = System.nanoTime();
+        long chars;
+        try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            //the records hold numbers of all regions, most of them with a country code
+            chars = new StreamingNumberExtractor("US").extract(reader, new StreamingNumberExtractor.OnNumberFoundListener() {
+                @Override
+                public void onNumberFound(long offset, String e164, Country country) {
+                    numbers[0]++;
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = Files.size(input) / (1024.0 * 1024.0);
+        System.err.println(String.format(Locale.US, "%.1f MB (%d chars) in %.2fs, %.2f MB/s, %d numbers, peak RSS %s",
+                megabytes, chars, seconds, megabytes / seconds, numbers[0], PeakMemory.describe()));
+    }
+
+    private static void corpus(Options options, Path output) throws IOException {
+        CorpusGenerator generator = new CorpusGenerator(options.getInt("seed", 42),
+                options.get("mix", CorpusGenerator.DEFAULT_MIX));
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 64 * 1024);
+        if (output.toString().endsWith(".gz"))
+            out = new GZIPOutputStream(out, 64 * 1024);
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            generator.write(writer, options.getInt("records", 1000000));
+        }
+    }
+
+    private static void footprint(Options options) throws IOException {
+        String out = options.get("out", null);
+        String flags = options.get("flags", null);
+        PrintStream stream = out != null ? new PrintStream(out, "UTF-8") : System.out;
+        try {
+            new Footprint(stream).run(flags != null ? new File(flags) : null);
+        } finally {
+            if (out != null)
+                stream.close();
+        }
+    }
+
+    private static void printStats(long records, long nanos) {
+        double seconds = nanos / 1e9;
+        System.err.println(String.format(Locale.US, "%d records in %.2fs, %.0f records/s, peak RSS %s",
+                records, seconds, records / seconds, PeakMemory.describe()));
+    }
+
+    private static void usage() {
+        System.err.print(USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.ialokim.phonefield.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal parser for {@code --name value} and {@code --flag} options following a command. Each
+ * command declares its options, anything else is rejected.
+ */
+final class Options {
+
+    final List<String> mPaths = new ArrayList<>();
+
+    private final Map<String, String> mValues = new HashMap<>();
+
+    /**
+     * Parses the arguments following the command.
+     *
+     * @param args    all arguments, starting with the command
+     * @param flags   the names of the options without value
+     * @param options the names of the options followed by a value
+     * @throws IllegalArgumentException if an option is unknown or its value is missing
+     */
+    Options(String[] args, Set<String> flags, Set<String> options) {
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--")) {
+                String name = arg.substring(2);
+                if (flags.contains(name)) {
+                    mValues.put(name, "");
+                } else if (options.contains(name)) {
+                    if (i + 1 >= args.length || args[i + 1].startsWith("--"))
+                        throw new IllegalArgumentException(arg + " expects a value");
+                    mValues.put(name, args[++i]);
+                } else {
+                    throw new IllegalArgumentException("unknown option " + arg);
+                }
+            } else {
+                mPaths.add(arg);
+            }
+        }
+    }
+
+    /**
+     * Creates a set of option names.
+     *
+     * @param names the names without the leading {@code --}
+     * @return the set
+     */
+    static Set<String> names(String... names) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(names)));
+    }
+
+    boolean has(String name) {
+        return mValues.containsKey(name);
+    }
+
+    String get(String name, String defaultValue) {
+        String value = mValues.get(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    int getInt(String name, int defaultValue) {
+        String value = mValues.get(name);
+        if (value == null || value.isEmpty())
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " expects a number: " + value);
+        }
+    }
+}
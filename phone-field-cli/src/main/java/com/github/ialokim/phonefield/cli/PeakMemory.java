@@ -0,0 +1,38 @@
+package com.github.ialokim.phonefield.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Reads the peak resident set size of this process.
+ */
+final class PeakMemory {
+
+    private PeakMemory() {
+    }
+
+    /**
+     * Describes the peak RSS, read from {@code /proc/self/status} on Linux. Elsewhere the current
+     * heap usage is reported instead.
+     *
+     * @return e.g. {@code "412 MB"}
+     */
+    static String describe() {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get("/proc/self/status"), StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmHWM:")) {
+                    long kb = Long.parseLong(line.substring(6).replace("kB", "").trim());
+                    return String.format(Locale.US, "%d MB", kb / 1024);
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return String.format(Locale.US, "n/a (heap %d MB)", (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+    }
+}
@@ -20,19 +20,39 @@ public class CountriesAdapter extends ArrayAdapter<Country> implements SpinnerAd
 
     private final LayoutInflater mInflater;
 
+    private boolean mEmojiFlags = false;
+
     public CountriesAdapter(Context context, List<Country> countries) {
         super(context, R.layout.item_country, R.id.name, countries);
         mInflater = LayoutInflater.from(getContext());
     }
 
+    /**
+     * Sets whether flags are drawn as emoji instead of drawables, where the font supports it.
+     *
+     * @param emojiFlags whether to use emoji flags
+     */
+    public void setEmojiFlags(boolean emojiFlags) {
+        if (mEmojiFlags == emojiFlags)
+            return;
+        mEmojiFlags = emojiFlags;
+        notifyDataSetChanged();
+    }
+
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
-        Country country = getItem(position);
+        ValueViewHolder viewHolder;
         if (convertView == null) {
             convertView = mInflater.inflate(R.layout.spinner_value, parent, false);
+            viewHolder = new ValueViewHolder();
+            viewHolder.mFlag = (ImageView) convertView.findViewById(R.id.flag);
+            viewHolder.mFlagEmoji = (TextView) convertView.findViewById(R.id.flag_emoji);
+            convertView.setTag(viewHolder);
+        } else {
+            viewHolder = (ValueViewHolder) convertView.getTag();
         }
-        ImageView imageView = (ImageView) convertView.findViewById(R.id.flag);
-        imageView.setImageResource(country.getResId(getContext()));
+        CountryRow row = getRow(position);
+        row.bindFlag(viewHolder.mFlag, viewHolder.mFlagEmoji, mEmojiFlags);
         return convertView;
     }
 
@@ -49,21 +69,35 @@ public class CountriesAdapter extends ArrayAdapter<Country> implements SpinnerAd
             viewHolder.mName = (TextView) convertView.findViewById(R.id.name);
             viewHolder.mDialCode = (TextView) convertView.findViewById(R.id.dial_code);
             viewHolder.mFlag = (ImageView) convertView.findViewById(R.id.flag);
+            viewHolder.mFlagEmoji = (TextView) convertView.findViewById(R.id.flag_emoji);
             convertView.setTag(viewHolder);
         } else {
             viewHolder = (ViewHolder) convertView.getTag();
         }
-        Country country = getItem(position);
-        viewHolder.mFlag.setImageResource(country.getResId(getContext()));
-        viewHolder.mName.setText(country.getDisplayName());
-        viewHolder.mDialCode.setText(country.getDialCode(true));
+        CountryRow row = getRow(position);
+        row.bindFlag(viewHolder.mFlag, viewHolder.mFlagEmoji, mEmojiFlags);
+        viewHolder.mName.setText(row.mDisplayName);
+        viewHolder.mDialCode.setText(row.mDialCodeLabel);
         return convertView;
 
     }
 
+    private CountryRow getRow(int position) {
+        Country country = getItem(position);
+        CountryRow row = CountryRows.get(getContext()).getRow(country);
+        //countries not part of the current snapshot are rare, so they are not cached
+        return row != null ? row : new CountryRow(getContext(), country);
+    }
+
     private static class ViewHolder {
         TextView mName;
         TextView mDialCode;
         ImageView mFlag;
+        TextView mFlagEmoji;
+    }
+
+    private static class ValueViewHolder {
+        ImageView mFlag;
+        TextView mFlagEmoji;
     }
 }
@@ -0,0 +1,167 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * RecyclerView adapter for the countries list used by {@link CountryPickerPopup}.
+ * Items have stable ids derived from the iso code, so that updates after a change of the locale
+ * or of the list of countries can be dispatched with {@link DiffUtil}.
+ */
+class CountriesRecyclerAdapter extends RecyclerView.Adapter<CountriesRecyclerAdapter.ViewHolder> {
+
+    /**
+     * Callback for a click on a country.
+     */
+    interface OnCountryClickListener {
+        void onCountryClick(Country country);
+    }
+
+    private final Context mContext;
+
+    private final LayoutInflater mInflater;
+
+    private final OnCountryClickListener mListener;
+
+    private List<Country> mCountries = new ArrayList<>();
+
+    private Locale mLocale;
+
+    private boolean mEmojiFlags = false;
+
+    CountriesRecyclerAdapter(Context context, OnCountryClickListener listener) {
+        mContext = context;
+        mInflater = LayoutInflater.from(context);
+        mListener = listener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Sets whether flags are drawn as emoji instead of drawables, where the font supports it.
+     *
+     * @param emojiFlags whether to use emoji flags
+     */
+    void setEmojiFlags(boolean emojiFlags) {
+        if (mEmojiFlags == emojiFlags)
+            return;
+        mEmojiFlags = emojiFlags;
+        notifyItemRangeChanged(0, mCountries.size());
+    }
+
+    /**
+     * Replaces the displayed countries, only notifying about the rows that actually changed.
+     *
+     * @param countries the new list of countries, already sorted
+     * @param locale    the locale the display names of {@code countries} are sorted by
+     */
+    void setCountries(final List<Country> countries, final Locale locale) {
+        final List<Country> old = mCountries;
+        final boolean localeChanged = mLocale != null && !mLocale.equals(locale);
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return old.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return countries.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return old.get(oldPosition).getCode().equals(countries.get(newPosition).getCode());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                //the display name depends on the locale
+                return !localeChanged && old.get(oldPosition) == countries.get(newPosition);
+            }
+        });
+        mCountries = countries;
+        mLocale = locale;
+        result.dispatchUpdatesTo(this);
+    }
+
+    /**
+     * Gets the locale the current list was sorted by.
+     *
+     * @return the locale or {@code null} if no list was set yet
+     */
+    Locale getLocale() {
+        return mLocale;
+    }
+
+    /**
+     * Gets the position of the given country.
+     *
+     * @param country the country to search for
+     * @return the position or {@code -1} if it is not part of the list
+     */
+    int getPosition(Country country) {
+        return mCountries.indexOf(country);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String code = mCountries.get(position).getCode();
+        return (code.charAt(0) << 16) | code.charAt(1);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mCountries.size();
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        final ViewHolder holder = new ViewHolder(mInflater.inflate(R.layout.item_country, parent, false));
+        holder.itemView.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                int position = holder.getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION)
+                    mListener.onCountryClick(mCountries.get(position));
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        Country country = mCountries.get(position);
+        CountryRow row = CountryRows.get(mContext).getRow(country);
+        if (row == null)
+            row = new CountryRow(mContext, country);
+        row.bindFlag(holder.mFlag, holder.mFlagEmoji, mEmojiFlags);
+        holder.mName.setText(row.mDisplayName);
+        holder.mDialCode.setText(row.mDialCodeLabel);
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView mName;
+        final TextView mDialCode;
+        final ImageView mFlag;
+        final TextView mFlagEmoji;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            mName = (TextView) itemView.findViewById(R.id.name);
+            mDialCode = (TextView) itemView.findViewById(R.id.dial_code);
+            mFlag = (ImageView) itemView.findViewById(R.id.flag);
+            mFlagEmoji = (TextView) itemView.findViewById(R.id.flag_emoji);
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.github.ialokim.phonefield;
 import android.content.Context;
 import android.content.res.Resources;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -16,22 +17,39 @@ public class Country {
 
     private final int mDialCode;
 
-    private final List<String> mAreaCodes;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * The area codes as sorted numbers, all of them having {@link #mAreaCodeLength} digits
+     * (including leading zeros).
+     */
+    private final int[] mAreaCodes;
     private final int mAreaCodeLength;
 
     private final boolean mPriority;
 
     public Country(String code, int dialCode, boolean priority) {
-        this(code, dialCode, priority, new ArrayList<String>());
+        this(code, dialCode, priority, Collections.<String>emptyList());
     }
     public Country(String code, int dialCode, boolean priority, List<String> areaCodes) {
         mCode = code;
         mDialCode = dialCode;
-        mAreaCodes = areaCodes;
+        mAreaCodes = new int[areaCodes.size()];
+        for (int i = 0; i < mAreaCodes.length; i++) {
+            mAreaCodes[i] = Integer.parseInt(areaCodes.get(i));
+        }
+        Arrays.sort(mAreaCodes);
         if (areaCodes.size() == 0)
             mAreaCodeLength = 0;
         else
-            mAreaCodeLength = mAreaCodes.get(0).length();
+            mAreaCodeLength = areaCodes.get(0).length();
         mPriority = priority;
     }
 
@@ -39,6 +57,10 @@ public class Country {
         return mCode;
     }
 
+    public boolean hasPriority() {
+        return mPriority;
+    }
+
     public String getDialCode() {
         return getDialCode(false);
     }
@@ -46,23 +68,37 @@ public class Country {
     public String getDialCode(boolean formatted) {
         if (formatted) {
             String code = "+" + mDialCode;
-            if (mAreaCodes.size() == 1)
-                code += " " + mAreaCodes.get(0);
+            if (mAreaCodes.length == 1)
+                code += " " + getAreaCode(0);
             return code;
         }
         return String.valueOf(mDialCode);
     }
 
     public boolean containsNumber(long number) {
-        String national = String.valueOf(number);
-        if (mAreaCodeLength > 0 && national.length() >= mAreaCodeLength) {
-            String areaCode = national.substring(0,mAreaCodeLength);
-            return mAreaCodes.contains(areaCode);
+        if (mAreaCodeLength > 0) {
+            int digits = 1;
+            while (digits < POWERS_OF_TEN.length && number >= POWERS_OF_TEN[digits]) {
+                digits++;
+            }
+            if (digits >= mAreaCodeLength) {
+                long areaCode = number / POWERS_OF_TEN[digits - mAreaCodeLength];
+                return Arrays.binarySearch(mAreaCodes, (int) areaCode) >= 0;
+            }
         }
 
         return mPriority;
     }
 
+    private String getAreaCode(int index) {
+        StringBuilder sb = new StringBuilder(mAreaCodeLength);
+        String areaCode = String.valueOf(mAreaCodes[index]);
+        for (int i = areaCode.length(); i < mAreaCodeLength; i++) {
+            sb.append('0');
+        }
+        return sb.append(areaCode).toString();
+    }
+
     public String getDisplayName() {
         return new Locale("", mCode).getDisplayCountry();
     }
@@ -0,0 +1,260 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Immutable, versioned snapshot of the country data used by all fields.
+ * <p>
+ * By default the data compiled into {@link Countries} is used. Apps can load an updated dataset
+ * (e.g. after a change of the NANP area codes) from a file in the format of {@code countries.json}
+ * and publish it with {@link #publish(CountryData)}. The current snapshot is kept in a single
+ * volatile reference, so readers never lock and always see a completely built table. Attached
+ * fields switch to the new data automatically.
+ */
+public final class CountryData {
+
+    /**
+     * Version of the data compiled into {@link Countries}.
+     */
+    public static final int BUILT_IN_VERSION = 0;
+
+    /**
+     * Listener notified after a new snapshot was published.
+     */
+    public interface OnCountryDataChangedListener {
+        /**
+         * Called on the thread that published the new snapshot.
+         *
+         * @param data the new snapshot
+         */
+        void onCountryDataChanged(CountryData data);
+    }
+
+    private static volatile CountryData sCurrent = fromMap(Countries.COUNTRIES, BUILT_IN_VERSION);
+
+    private static final List<OnCountryDataChangedListener> sListeners = new CopyOnWriteArrayList<>();
+
+    private final int mVersion;
+
+    private final Map<Integer, List<Country>> mByDialCode;
+
+    private final Map<String, Country> mByCode;
+
+    private final List<Country> mAll;
+
+    private CountryData(int version, Map<Integer, List<Country>> byDialCode) {
+        mVersion = version;
+        mByDialCode = byDialCode;
+        Map<String, Country> byCode = new HashMap<>();
+        List<Country> all = new ArrayList<>();
+        for (List<Country> l : byDialCode.values()) {
+            for (Country country : l) {
+                if (byCode.put(country.getCode(), country) != null)
+                    throw new IllegalArgumentException("Duplicate country " + country.getCode());
+                all.add(country);
+            }
+        }
+        mByCode = byCode;
+        mAll = Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Gets the snapshot currently in use.
+     *
+     * @return the current snapshot
+     */
+    public static CountryData getCurrent() {
+        return sCurrent;
+    }
+
+    /**
+     * Replaces the current snapshot and notifies the listeners.
+     *
+     * @param data the new snapshot
+     */
+    public static void publish(CountryData data) {
+        if (data == null) throw new IllegalArgumentException();
+        sCurrent = data;
+        for (OnCountryDataChangedListener listener : sListeners) {
+            listener.onCountryDataChanged(data);
+        }
+    }
+
+    /**
+     * Registers a listener for newly published snapshots.
+     *
+     * @param listener the listener
+     */
+    public static void addOnCountryDataChangedListener(OnCountryDataChangedListener listener) {
+        sListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addOnCountryDataChangedListener(OnCountryDataChangedListener)}.
+     *
+     * @param listener the listener
+     */
+    public static void removeOnCountryDataChangedListener(OnCountryDataChangedListener listener) {
+        sListeners.remove(listener);
+    }
+
+    /**
+     * Creates a snapshot from a map of dial codes to countries, like {@link Countries#COUNTRIES}.
+     * For every dial code, the country with priority has to be the last one.
+     *
+     * @param countries the countries by dial code
+     * @param version   the version of the data
+     * @return the snapshot
+     */
+    public static CountryData fromMap(Map<Integer, List<Country>> countries, int version) {
+        Map<Integer, List<Country>> byDialCode = new HashMap<>();
+        for (Map.Entry<Integer, List<Country>> entry : countries.entrySet()) {
+            byDialCode.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        return new CountryData(version, byDialCode);
+    }
+
+    /**
+     * Reads and validates a snapshot in the format of {@code countries.json}: an array of objects
+     * with {@code iso2}, {@code dialCode}, {@code priority} and {@code areaCodes}.
+     *
+     * @param reader  the json data, not closed by this method
+     * @param version the version of the data
+     * @return the snapshot
+     * @throws IOException              if the data can not be read or is no valid json
+     * @throws IllegalArgumentException if the data is inconsistent, e.g. a dial code shared by
+     *                                  several countries has none or several with priority
+     */
+    public static CountryData fromJson(Reader reader, int version) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[8192];
+        int read;
+        while ((read = reader.read(buf)) != -1) {
+            sb.append(buf, 0, read);
+        }
+
+        Map<Integer, List<Country>> byDialCode = new HashMap<>();
+        try {
+            JSONArray array = new JSONArray(sb.toString());
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject o = array.getJSONObject(i);
+                String code = o.getString("iso2").toLowerCase();
+                if (code.length() != 2)
+                    throw new IllegalArgumentException("Invalid iso2 code " + code);
+                int dialCode = Integer.parseInt(o.getString("dialCode"));
+                boolean priority = o.getInt("priority") != 0;
+                List<String> areaCodes = new ArrayList<>();
+                JSONArray a = o.optJSONArray("areaCodes");
+                if (a != null) {
+                    for (int j = 0; j < a.length(); j++) {
+                        String areaCode = a.getString(j);
+                        if (areaCode.length() != a.getString(0).length())
+                            throw new IllegalArgumentException("Area codes of " + code + " differ in length");
+                        areaCodes.add(areaCode);
+                    }
+                }
+                List<Country> l = byDialCode.get(dialCode);
+                if (l == null) {
+                    l = new ArrayList<>();
+                    byDialCode.put(dialCode, l);
+                }
+                l.add(new Country(code, dialCode, priority, areaCodes));
+            }
+        } catch (JSONException | NumberFormatException e) {
+            throw new IOException("Invalid country data", e);
+        }
+
+        for (Map.Entry<Integer, List<Country>> entry : byDialCode.entrySet()) {
+            List<Country> l = entry.getValue();
+            if (l.size() == 1)
+                continue;
+            //the country with priority has to be checked last, see raw/countries-generator/gen.js
+            Country priority = null;
+            for (Country country : l) {
+                if (country.hasPriority()) {
+                    if (priority != null)
+                        throw new IllegalArgumentException("Two countries with priority for +" + entry.getKey());
+                    priority = country;
+                }
+            }
+            if (priority == null)
+                throw new IllegalArgumentException("No country with priority for +" + entry.getKey());
+            l.remove(priority);
+            l.add(priority);
+        }
+        return fromMap(byDialCode, version);
+    }
+
+    /**
+     * Gets the version of this snapshot.
+     *
+     * @return the version, {@link #BUILT_IN_VERSION} for the compiled in data
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Gets the countries sharing a dial code, the one with priority being the last.
+     *
+     * @param dialCode the dial code
+     * @return the countries or {@code null} if the dial code is unknown
+     */
+    public List<Country> getCountries(int dialCode) {
+        return mByDialCode.get(dialCode);
+    }
+
+    /**
+     * Gets all countries.
+     *
+     * @return an unmodifiable list of all countries
+     */
+    public List<Country> getAll() {
+        return mAll;
+    }
+
+    /**
+     * Finds the country with the given iso code.
+     *
+     * @param code the two letter ISO 3166 code, case insensitive
+     * @return the country or {@code null} if there is none with this code
+     */
+    public Country getCountry(String code) {
+        if (code == null)
+            return null;
+        return mByCode.get(code.toLowerCase());
+    }
+
+    /**
+     * Finds the country a phone number belongs to, taking the area codes into account.
+     *
+     * @param number the parsed phone number
+     * @return the country or {@code null} if none matches
+     */
+    public Country getCountry(Phonenumber.PhoneNumber number) {
+        if (number == null)
+            return null;
+        List<Country> l = mByDialCode.get(number.getCountryCode());
+        if (l == null)
+            return null;
+        for (Country country : l) {
+            if (country.containsNumber(number.getNationalNumber())) {
+                return country;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lookups on the current {@link CountryData} snapshot which don't depend on an adapter.
+ */
+final class CountryLookup {
+
+    private CountryLookup() {
+    }
+
+    /**
+     * Finds the country with the given iso code.
+     *
+     * @param code the two letter ISO 3166 code, case insensitive
+     * @return the country or {@code null} if there is none with this code
+     */
+    static Country forCode(String code) {
+        return CountryData.getCurrent().getCountry(code);
+    }
+
+    /**
+     * Finds the country a phone number belongs to, taking the area codes into account.
+     *
+     * @param number the parsed phone number
+     * @return the country or {@code null} if none matches
+     */
+    static Country forNumber(Phonenumber.PhoneNumber number) {
+        return CountryData.getCurrent().getCountry(number);
+    }
+
+    /**
+     * Gets all countries.
+     *
+     * @return a new modifiable list containing all countries
+     */
+    static List<Country> asList() {
+        return new ArrayList<>(CountryData.getCurrent().getAll());
+    }
+}
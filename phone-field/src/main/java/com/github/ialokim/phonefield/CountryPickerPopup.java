@@ -0,0 +1,108 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.widget.PopupWindow;
+
+import java.util.List;
+import java.util.Locale;
+
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Dropdown for picking a country, backed by a {@link RecyclerView} instead of the list of the
+ * {@link android.widget.Spinner}. All rows have the same height, so the list does not measure
+ * its items, and rows about to scroll into view are prefetched.
+ */
+class CountryPickerPopup {
+
+    private final PopupWindow mPopup;
+
+    private final RecyclerView mRecyclerView;
+
+    private final LinearLayoutManager mLayoutManager;
+
+    private final CountriesRecyclerAdapter mAdapter;
+
+    /**
+     * Creates a new popup.
+     *
+     * @param context  the context
+     * @param listener called when a country was picked, the popup is dismissed afterwards
+     */
+    CountryPickerPopup(Context context, final CountriesRecyclerAdapter.OnCountryClickListener listener) {
+        Resources res = context.getResources();
+        mAdapter = new CountriesRecyclerAdapter(context, new CountriesRecyclerAdapter.OnCountryClickListener() {
+            @Override
+            public void onCountryClick(Country country) {
+                mPopup.dismiss();
+                listener.onCountryClick(country);
+            }
+        });
+        mLayoutManager = new LinearLayoutManager(context);
+        //rows about to scroll into view are prefetched by the GapWorker between frames
+        mLayoutManager.setItemPrefetchEnabled(true);
+        mRecyclerView = new RecyclerView(context);
+        mRecyclerView.setHasFixedSize(true);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setAdapter(mAdapter);
+
+        mPopup = new PopupWindow(mRecyclerView, res.getDimensionPixelSize(R.dimen.spinner_height),
+                res.getDimensionPixelSize(R.dimen.country_popup_height), true);
+        mPopup.setBackgroundDrawable(new ColorDrawable(ContextCompat.getColor(context, R.color.pf_white)));
+        mPopup.setOutsideTouchable(true);
+    }
+
+    /**
+     * Sets whether flags are drawn as emoji instead of drawables.
+     *
+     * @param emojiFlags whether to use emoji flags
+     */
+    void setEmojiFlags(boolean emojiFlags) {
+        mAdapter.setEmojiFlags(emojiFlags);
+    }
+
+    /**
+     * Updates the list if the countries or the locale changed since the last call.
+     *
+     * @param countries the countries sorted for {@code locale}
+     * @param locale    the current locale
+     */
+    void setCountries(List<Country> countries, Locale locale) {
+        mAdapter.setCountries(countries, locale);
+    }
+
+    /**
+     * Gets the locale the current list was sorted by.
+     *
+     * @return the locale or {@code null} if no list was set yet
+     */
+    Locale getLocale() {
+        return mAdapter.getLocale();
+    }
+
+    /**
+     * Shows the popup below the anchor, scrolled to the selected country.
+     *
+     * @param anchor   the view to show the popup at
+     * @param selected the currently selected country, may be {@code null}
+     */
+    void show(View anchor, Country selected) {
+        int position = selected != null ? mAdapter.getPosition(selected) : -1;
+        if (position != -1)
+            mLayoutManager.scrollToPositionWithOffset(position, 0);
+        mPopup.showAsDropDown(anchor);
+    }
+
+    void dismiss() {
+        mPopup.dismiss();
+    }
+
+    boolean isShowing() {
+        return mPopup.isShowing();
+    }
+}
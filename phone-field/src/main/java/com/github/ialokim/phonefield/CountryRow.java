@@ -0,0 +1,108 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+import android.graphics.Paint;
+import android.os.Build;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import java.util.Locale;
+
+/**
+ * Row model of a country, holding everything needed to bind it in a list for one locale. It is
+ * immutable except for the cached glyph check.
+ */
+final class CountryRow {
+
+    private static final int REGIONAL_INDICATOR_A = 0x1F1E6;
+
+    private static final Paint sGlyphPaint = new Paint();
+
+    private static final int GLYPH_UNKNOWN = 0;
+    private static final int GLYPH_PRESENT = 1;
+    private static final int GLYPH_MISSING = 2;
+
+    final Country mCountry;
+
+    final String mDisplayName;
+
+    final String mDialCodeLabel;
+
+    /**
+     * The flag drawable or 0 if the library was built without them.
+     */
+    final int mFlagResId;
+
+    final String mFlagEmoji;
+
+    /**
+     * Result of {@link #hasFlagGlyph()}, checking it twice on a race gives the same result.
+     */
+    private int mFlagGlyph = GLYPH_UNKNOWN;
+
+    CountryRow(Context context, Country country) {
+        mCountry = country;
+        mDisplayName = country.getDisplayName();
+        mDialCodeLabel = country.getDialCode(true);
+        mFlagResId = country.getResId(context);
+        mFlagEmoji = toFlagEmoji(country.getCode());
+    }
+
+    /**
+     * Shows the flag either as emoji or as drawable. Both views overlap, the unused one is hidden.
+     * The drawable is used if emoji are not wanted or the font can't draw the flag, unless there
+     * are no drawables at all.
+     *
+     * @param flag       the view for the drawable
+     * @param flagEmoji  the view for the emoji
+     * @param emojiFlags whether emoji are preferred
+     */
+    void bindFlag(ImageView flag, TextView flagEmoji, boolean emojiFlags) {
+        if (mFlagResId == 0 || (emojiFlags && hasFlagGlyph())) {
+            flagEmoji.setText(mFlagEmoji);
+            flagEmoji.setVisibility(View.VISIBLE);
+            flag.setImageDrawable(null);
+            flag.setVisibility(View.INVISIBLE);
+        } else {
+            flag.setImageResource(mFlagResId);
+            flag.setVisibility(View.VISIBLE);
+            flagEmoji.setText(null);
+            flagEmoji.setVisibility(View.INVISIBLE);
+        }
+    }
+
+    /**
+     * Checks whether the default font can draw {@link #mFlagEmoji} as a flag. Only needed with
+     * emoji flags, so the font is asked on first use and not for every country up front.
+     *
+     * @return true if the emoji can be drawn
+     */
+    boolean hasFlagGlyph() {
+        if (mFlagGlyph == GLYPH_UNKNOWN)
+            mFlagGlyph = hasGlyph(mFlagEmoji) ? GLYPH_PRESENT : GLYPH_MISSING;
+        return mFlagGlyph == GLYPH_PRESENT;
+    }
+
+    /**
+     * Builds the flag emoji from the two regional indicator symbols of the ISO code.
+     */
+    private static String toFlagEmoji(String code) {
+        String upper = code.toUpperCase(Locale.US);
+        if (upper.length() != 2)
+            return upper;
+        return new StringBuilder(4)
+                .appendCodePoint(REGIONAL_INDICATOR_A + upper.charAt(0) - 'A')
+                .appendCodePoint(REGIONAL_INDICATOR_A + upper.charAt(1) - 'A')
+                .toString();
+    }
+
+    private static boolean hasGlyph(String text) {
+        //older versions can't tell, and most of them lack flag emoji anyway
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M)
+            return false;
+        synchronized (sGlyphPaint) {
+            return sGlyphPaint.hasGlyph(text);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Row models of all countries, computed once per locale and {@link CountryData} snapshot and
+ * shared by all adapters, so that binding a row neither formats strings nor looks up resources.
+ */
+final class CountryRows {
+
+    private static volatile CountryRows sCurrent;
+
+    private final Locale mLocale;
+
+    private final CountryData mData;
+
+    private final Map<Country, CountryRow> mRows;
+
+    private final List<Country> mSorted;
+
+    private CountryRows(Context context, Locale locale, CountryData data) {
+        mLocale = locale;
+        mData = data;
+        List<Country> countries = data.getAll();
+        final Map<Country, CountryRow> rows = new HashMap<>(countries.size() * 2);
+        for (Country country : countries) {
+            rows.put(country, new CountryRow(context, country));
+        }
+        List<Country> sorted = new ArrayList<>(countries);
+        Collections.sort(sorted, new Comparator<Country>() {
+            @Override
+            public int compare(Country c1, Country c2) {
+                return rows.get(c1).mDisplayName.compareToIgnoreCase(rows.get(c2).mDisplayName);
+            }
+        });
+        mRows = rows;
+        mSorted = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Gets the rows for the current default locale and country data, computing them if necessary.
+     * Safe to call from any thread.
+     *
+     * @param context any context of the app
+     * @return the rows
+     */
+    static CountryRows get(Context context) {
+        Locale locale = Locale.getDefault();
+        CountryData data = CountryData.getCurrent();
+        CountryRows rows = sCurrent;
+        if (rows == null || rows.mData != data || !rows.mLocale.equals(locale)) {
+            rows = new CountryRows(context.getApplicationContext(), locale, data);
+            sCurrent = rows;
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the locale the rows were computed for.
+     *
+     * @return the locale
+     */
+    Locale getLocale() {
+        return mLocale;
+    }
+
+    /**
+     * Gets the row of the given country.
+     *
+     * @param country the country
+     * @return the row or {@code null} if the country is not part of the snapshot
+     */
+    CountryRow getRow(Country country) {
+        return mRows.get(country);
+    }
+
+    /**
+     * Gets all countries sorted by their display name.
+     *
+     * @return an unmodifiable sorted list
+     */
+    List<Country> getSortedCountries() {
+        return mSorted;
+    }
+}
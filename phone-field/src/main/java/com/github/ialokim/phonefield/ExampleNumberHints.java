@@ -0,0 +1,69 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of formatted example numbers, used as hints showing the user which format
+ * to type. Generating an example number needs the region's metadata, so it is done on the shared
+ * background thread.
+ */
+final class ExampleNumberHints {
+
+    /**
+     * Callback for an example number computed in the background.
+     */
+    interface Callback {
+        /**
+         * Called on the background thread.
+         *
+         * @param hint the formatted example number or an empty string if the region has none
+         */
+        void onExampleNumber(String hint);
+    }
+
+    private static final Map<String, String> sCache = new ConcurrentHashMap<>();
+
+    private ExampleNumberHints() {
+    }
+
+    /**
+     * Gets a cached example number.
+     *
+     * @return the formatted example number, an empty string if the region has none or {@code null}
+     * if it was not computed yet
+     */
+    static String getCached(String region, PhoneNumberUtil.PhoneNumberType type,
+                            PhoneNumberUtil.PhoneNumberFormat format) {
+        return sCache.get(key(region, type, format));
+    }
+
+    /**
+     * Computes an example number on the background thread and caches it.
+     */
+    static void load(final String region, final PhoneNumberUtil.PhoneNumberType type,
+                     final PhoneNumberUtil.PhoneNumberFormat format, final Callback callback) {
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                String key = key(region, type, format);
+                String hint = sCache.get(key);
+                if (hint == null) {
+                    PhoneNumberUtil util = PhoneNumberUtil.getInstance();
+                    Phonenumber.PhoneNumber number = util.getExampleNumberForType(region, type);
+                    hint = number != null ? util.format(number, format) : "";
+                    sCache.put(key, hint);
+                }
+                callback.onExampleNumber(hint);
+            }
+        });
+    }
+
+    private static String key(String region, PhoneNumberUtil.PhoneNumberType type,
+                              PhoneNumberUtil.PhoneNumberFormat format) {
+        return region + '|' + type.ordinal() + '|' + format.ordinal();
+    }
+}
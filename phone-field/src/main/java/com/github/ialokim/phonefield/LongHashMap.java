@@ -0,0 +1,188 @@
+package com.github.ialokim.phonefield;
+
+import java.util.Arrays;
+
+/**
+ * Map from {@code long} keys, e.g. {@link PackedPhoneNumber packed phone numbers}, to objects,
+ * using open addressing with linear probing in two parallel arrays. Putting does not allocate
+ * unless the map has to grow.
+ * <p>
+ * 0 marks empty slots and can't be used as key. Not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class LongHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mKeys;
+
+    private Object[] mValues;
+
+    private int mMask;
+
+    private int mSize = 0;
+
+    private int mResizeAt;
+
+    /**
+     * Creates a new, empty map.
+     */
+    public LongHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Creates a new, empty map.
+     *
+     * @param expectedSize the number of entries the map holds without growing
+     */
+    public LongHashMap(int expectedSize) {
+        allocate(LongHashing.capacityFor(expectedSize, MIN_CAPACITY));
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key   the key, not 0
+     * @param value the value
+     * @return the previous value of the key or {@code null} if it had none
+     */
+    public V put(long key, V value) {
+        LongHashing.checkKey(key);
+        int i = LongHashing.hash(key) & mMask;
+        long k;
+        while ((k = mKeys[i]) != 0) {
+            if (k == key) {
+                V old = valueAt(i);
+                mValues[i] = value;
+                return old;
+            }
+            i = (i + 1) & mMask;
+        }
+        mKeys[i] = key;
+        mValues[i] = value;
+        if (++mSize > mResizeAt)
+            rehash(mKeys.length * 2);
+        return null;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key the key
+     * @return the value or {@code null} if the key has none
+     */
+    public V get(long key) {
+        int i = key != 0 ? indexOf(key) : -1;
+        return i >= 0 ? valueAt(i) : null;
+    }
+
+    /**
+     * Checks whether the map contains a key.
+     *
+     * @param key the key
+     * @return {@code true} if a value was put for the key
+     */
+    public boolean containsKey(long key) {
+        return key != 0 && indexOf(key) >= 0;
+    }
+
+    /**
+     * Removes a key and its value.
+     *
+     * @param key the key
+     * @return the removed value or {@code null} if the key had none
+     */
+    public V remove(long key) {
+        int i = key != 0 ? indexOf(key) : -1;
+        if (i < 0)
+            return null;
+        V old = valueAt(i);
+        LongHashing.shiftBack(mKeys, mValues, i, mMask);
+        mSize--;
+        return old;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the size
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Checks whether the map is empty.
+     *
+     * @return {@code true} if the map has no entries
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes all entries, keeping the capacity.
+     */
+    public void clear() {
+        Arrays.fill(mKeys, 0);
+        Arrays.fill(mValues, null);
+        mSize = 0;
+    }
+
+    /**
+     * Copies the keys into a new array, in no particular order.
+     *
+     * @return the keys
+     */
+    public long[] keys() {
+        long[] keys = new long[mSize];
+        int n = 0;
+        for (long key : mKeys) {
+            if (key != 0)
+                keys[n++] = key;
+        }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) mValues[index];
+    }
+
+    private int indexOf(long key) {
+        int i = LongHashing.hash(key) & mMask;
+        long k;
+        while ((k = mKeys[i]) != 0) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mMask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new Object[capacity];
+        mMask = capacity - 1;
+        mResizeAt = LongHashing.maxSize(capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = mKeys;
+        Object[] oldValues = mValues;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key == 0)
+                continue;
+            int i = LongHashing.hash(key) & mMask;
+            while (mKeys[i] != 0) {
+                i = (i + 1) & mMask;
+            }
+            mKeys[i] = key;
+            mValues[i] = oldValues[j];
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.ialokim.phonefield;
+
+import java.util.Arrays;
+
+/**
+ * Set of {@code long} values, e.g. of {@link PackedPhoneNumber packed phone numbers}, using open
+ * addressing with linear probing in a single array. Adding does not allocate unless the set has
+ * to grow, so a set created with the expected size dedupes any number of values without
+ * allocating per value.
+ * <p>
+ * 0 marks empty slots and can't be added. Not thread-safe.
+ */
+public class LongHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mKeys;
+
+    private int mMask;
+
+    private int mSize = 0;
+
+    private int mResizeAt;
+
+    /**
+     * Creates a new, empty set.
+     */
+    public LongHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Creates a new, empty set.
+     *
+     * @param expectedSize the number of values the set holds without growing
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(LongHashing.capacityFor(expectedSize, MIN_CAPACITY));
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value, not 0
+     * @return {@code true} if the value was not in the set yet
+     */
+    public boolean add(long value) {
+        LongHashing.checkKey(value);
+        int i = LongHashing.hash(value) & mMask;
+        long key;
+        while ((key = mKeys[i]) != 0) {
+            if (key == value)
+                return false;
+            i = (i + 1) & mMask;
+        }
+        mKeys[i] = value;
+        if (++mSize > mResizeAt)
+            rehash(mKeys.length * 2);
+        return true;
+    }
+
+    /**
+     * Checks whether the set contains a value.
+     *
+     * @param value the value
+     * @return {@code true} if it was added
+     */
+    public boolean contains(long value) {
+        return value != 0 && indexOf(value) >= 0;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value the value
+     * @return {@code true} if the set contained the value
+     */
+    public boolean remove(long value) {
+        if (value == 0)
+            return false;
+        int i = indexOf(value);
+        if (i < 0)
+            return false;
+        LongHashing.shiftBack(mKeys, null, i, mMask);
+        mSize--;
+        return true;
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return the size
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     *
+     * @return {@code true} if the set has no values
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes all values, keeping the capacity.
+     */
+    public void clear() {
+        Arrays.fill(mKeys, 0);
+        mSize = 0;
+    }
+
+    /**
+     * Copies the values into a new array, in no particular order.
+     *
+     * @return the values
+     */
+    public long[] toArray() {
+        long[] values = new long[mSize];
+        int n = 0;
+        for (long key : mKeys) {
+            if (key != 0)
+                values[n++] = key;
+        }
+        return values;
+    }
+
+    private int indexOf(long value) {
+        int i = LongHashing.hash(value) & mMask;
+        long key;
+        while ((key = mKeys[i]) != 0) {
+            if (key == value)
+                return i;
+            i = (i + 1) & mMask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mMask = capacity - 1;
+        mResizeAt = LongHashing.maxSize(capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] old = mKeys;
+        allocate(capacity);
+        for (long key : old) {
+            if (key == 0)
+                continue;
+            int i = LongHashing.hash(key) & mMask;
+            while (mKeys[i] != 0) {
+                i = (i + 1) & mMask;
+            }
+            mKeys[i] = key;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.ialokim.phonefield;
+
+/**
+ * Helpers shared by {@link LongHashSet} and {@link LongHashMap}.
+ */
+final class LongHashing {
+
+    /**
+     * The tables are grown when they are more than 3/4 full.
+     */
+    private static final int LOAD_FACTOR_PERCENT = 75;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private LongHashing() {
+    }
+
+    /**
+     * Spreads the bits of a key, packed phone numbers differ mostly in the middle bits.
+     */
+    static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    static void checkKey(long key) {
+        if (key == 0) throw new IllegalArgumentException("0 can't be used as key");
+    }
+
+    static int capacityFor(int expectedSize, int minCapacity) {
+        if (expectedSize < 0) throw new IllegalArgumentException("expectedSize must not be negative");
+        long needed = (long) expectedSize * 100 / LOAD_FACTOR_PERCENT + 1;
+        int capacity = minCapacity;
+        while (capacity < needed) {
+            if (capacity == MAX_CAPACITY) throw new IllegalArgumentException("expectedSize too large");
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int maxSize(int capacity) {
+        return (int) ((long) capacity * LOAD_FACTOR_PERCENT / 100);
+    }
+
+    /**
+     * Removes the entry at {@code index} and moves entries of the same probe sequence back into
+     * the gap, so lookups don't need tombstones.
+     */
+    static void shiftBack(long[] keys, Object[] values, int index, int mask) {
+        int gap = index;
+        int i = index;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = keys[i];
+            if (key == 0)
+                break;
+            int home = hash(key) & mask;
+            //move the entry if its home slot is not between the gap and its current slot
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = key;
+                if (values != null)
+                    values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+        if (values != null)
+            values[gap] = null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import java.util.Locale;
+
+/**
+ * Location and carrier labels of valid numbers, looked up in libphonenumber's offline geocoding
+ * and carrier data on the shared background thread. The data is an optional dependency the app
+ * adds, see {@link #getMissingData(int)}. Prefix files are loaded lazily and at most
+ * {@link #MAX_FILES} of each kind are kept in memory.
+ */
+final class NumberLabels {
+
+    /**
+     * Callback for a label computed in the background.
+     */
+    interface Callback {
+        /**
+         * Called on the background thread.
+         *
+         * @param label the label or an empty string if there is none
+         */
+        void onNumberLabel(String label);
+    }
+
+    static final int MAX_FILES = 8;
+
+    private static final PrefixMapCache sGeocoding = new PrefixMapCache(PrefixMapCache.GEOCODING_DIRECTORY, MAX_FILES);
+
+    private static final PrefixMapCache sCarriers = new PrefixMapCache(PrefixMapCache.CARRIER_DIRECTORY, MAX_FILES);
+
+    private NumberLabels() {
+    }
+
+    /**
+     * Computes the label of a valid number on the background thread.
+     *
+     * @param number the valid number
+     * @param locale the locale whose language is used for the label
+     * @param labels a combination of {@link PhoneField#LABEL_LOCATION} and {@link PhoneField#LABEL_CARRIER}
+     */
+    static void load(final Phonenumber.PhoneNumber number, final Locale locale, final int labels,
+                     final Callback callback) {
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onNumberLabel(getLabel(number, locale, labels));
+            }
+        });
+    }
+
+    /**
+     * Checks that the data for the given labels is on the classpath.
+     *
+     * @param labels a combination of {@link PhoneField#LABEL_LOCATION} and {@link PhoneField#LABEL_CARRIER}
+     * @return the missing artifact or null if nothing is missing
+     */
+    static String getMissingData(int labels) {
+        if ((labels & PhoneField.LABEL_LOCATION) != 0 && !sGeocoding.hasData())
+            return "com.googlecode.libphonenumber:geocoder";
+        if ((labels & PhoneField.LABEL_CARRIER) != 0 && !sCarriers.hasData())
+            return "com.googlecode.libphonenumber:carrier";
+        return null;
+    }
+
+    static String getLabel(Phonenumber.PhoneNumber number, Locale locale, int labels) {
+        PhoneNumberUtil util = PhoneNumberUtil.getInstance();
+        PhoneNumberUtil.PhoneNumberType type = util.getNumberType(number);
+        String language = locale.getLanguage();
+        String region = locale.getCountry();
+        String location = "";
+        String carrier = "";
+        //same restrictions as PhoneNumberOfflineGeocoder and PhoneNumberToCarrierMapper
+        if ((labels & PhoneField.LABEL_LOCATION) != 0 && util.isNumberGeographical(type, number.getCountryCode()))
+            location = sGeocoding.lookup(number, language, region);
+        if ((labels & PhoneField.LABEL_CARRIER) != 0 && (type == PhoneNumberUtil.PhoneNumberType.MOBILE
+                || type == PhoneNumberUtil.PhoneNumberType.FIXED_LINE_OR_MOBILE
+                || type == PhoneNumberUtil.PhoneNumberType.PAGER))
+            carrier = sCarriers.lookup(number, language, region);
+        if (location.isEmpty())
+            return carrier;
+        if (carrier.isEmpty())
+            return location;
+        return location + ", " + carrier;
+    }
+
+    /**
+     * Gets the number of prefix files currently held in memory.
+     *
+     * @return the number of files of both kinds
+     */
+    static int getLoadedFileCount() {
+        return sGeocoding.size() + sCarriers.size();
+    }
+}
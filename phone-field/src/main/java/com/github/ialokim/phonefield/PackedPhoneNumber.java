@@ -0,0 +1,141 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.Phonenumber;
+
+/**
+ * Encodes the identity of a phone number, i.e. its country code, national number and leading
+ * zeros, into a single {@code long}, e.g. to deduplicate or join numbers in a
+ * {@link LongHashSet} or {@link LongHashMap} without keeping a {@link Phonenumber.PhoneNumber}
+ * object per number.
+ * <p>
+ * Layout, from the most significant bit: 10 bits country code, 52 bits national number, 2 bits
+ * number of leading zeros (0 if the number has no italian leading zero). Packed numbers are never
+ * 0, because country codes start at 1. Extensions, the raw input and the other fields only set
+ * by {@code parseAndKeepRawInput()} are not part of the identity and are not encoded.
+ */
+public final class PackedPhoneNumber {
+
+    /**
+     * The largest national number that can be packed, 4503599627370495. This covers all example
+     * numbers of libphonenumber's metadata; only a few special numbers of up to 17 digits are
+     * longer and have to be checked with {@link #canPack(Phonenumber.PhoneNumber)}.
+     */
+    public static final long MAX_NATIONAL_NUMBER = (1L << 52) - 1;
+
+    private static final int MAX_COUNTRY_CODE = (1 << 10) - 1;
+
+    private static final int MAX_LEADING_ZEROS = 3;
+
+    private PackedPhoneNumber() {
+    }
+
+    /**
+     * Checks whether the given number can be packed without losing information.
+     *
+     * @param number the number
+     * @return {@code true} if {@link #pack(Phonenumber.PhoneNumber)} accepts it
+     */
+    public static boolean canPack(Phonenumber.PhoneNumber number) {
+        return number.getCountryCode() > 0 && number.getCountryCode() <= MAX_COUNTRY_CODE
+                && number.getNationalNumber() >= 0 && number.getNationalNumber() <= MAX_NATIONAL_NUMBER
+                && getLeadingZeros(number) <= MAX_LEADING_ZEROS
+                && !number.hasExtension();
+    }
+
+    /**
+     * Packs the given number.
+     *
+     * @param number the number
+     * @return the packed number, never 0
+     * @throws IllegalArgumentException if the number can't be packed, see {@link #canPack(Phonenumber.PhoneNumber)}
+     */
+    public static long pack(Phonenumber.PhoneNumber number) {
+        if (!canPack(number))
+            throw new IllegalArgumentException("Can't pack " + number);
+        return pack(number.getCountryCode(), number.getNationalNumber(), getLeadingZeros(number));
+    }
+
+    /**
+     * Packs the given parts of a number.
+     *
+     * @param countryCode    the country code, 1 to 1023
+     * @param nationalNumber the national number, 0 to {@link #MAX_NATIONAL_NUMBER}
+     * @param leadingZeros   the number of leading zeros of the national number, 0 to 3
+     * @return the packed number, never 0
+     * @throws IllegalArgumentException if a part is out of range
+     */
+    public static long pack(int countryCode, long nationalNumber, int leadingZeros) {
+        if (countryCode <= 0 || countryCode > MAX_COUNTRY_CODE
+                || nationalNumber < 0 || nationalNumber > MAX_NATIONAL_NUMBER
+                || leadingZeros < 0 || leadingZeros > MAX_LEADING_ZEROS)
+            throw new IllegalArgumentException("Can't pack +" + countryCode + " " + nationalNumber);
+        return ((long) countryCode << 54) | (nationalNumber << 2) | leadingZeros;
+    }
+
+    /**
+     * Gets the country code of a packed number.
+     *
+     * @param packed the packed number
+     * @return the country code
+     */
+    public static int getCountryCode(long packed) {
+        return (int) (packed >>> 54);
+    }
+
+    /**
+     * Gets the national number of a packed number.
+     *
+     * @param packed the packed number
+     * @return the national number, without leading zeros
+     */
+    public static long getNationalNumber(long packed) {
+        return (packed >>> 2) & MAX_NATIONAL_NUMBER;
+    }
+
+    /**
+     * Gets the number of leading zeros of a packed number.
+     *
+     * @param packed the packed number
+     * @return the number of leading zeros, 0 if the number has no italian leading zero
+     */
+    public static int getLeadingZeros(long packed) {
+        return (int) (packed & MAX_LEADING_ZEROS);
+    }
+
+    /**
+     * Unpacks a packed number into a new {@link Phonenumber.PhoneNumber}, equal to the one it was
+     * packed from as returned by {@code PhoneNumberUtil.parse()}.
+     *
+     * @param packed the packed number
+     * @return the number
+     */
+    public static Phonenumber.PhoneNumber unpack(long packed) {
+        return unpack(packed, new Phonenumber.PhoneNumber());
+    }
+
+    /**
+     * Unpacks a packed number into an existing {@link Phonenumber.PhoneNumber}, which is cleared
+     * first, e.g. to reuse one instance while iterating.
+     *
+     * @param packed the packed number
+     * @param number the number to fill
+     * @return {@code number}
+     */
+    public static Phonenumber.PhoneNumber unpack(long packed, Phonenumber.PhoneNumber number) {
+        number.clear();
+        number.setCountryCode(getCountryCode(packed));
+        number.setNationalNumber(getNationalNumber(packed));
+        int leadingZeros = getLeadingZeros(packed);
+        if (leadingZeros > 0) {
+            number.setItalianLeadingZero(true);
+            //1 is the default, setting it would make the number differ from a parsed one
+            if (leadingZeros > 1)
+                number.setNumberOfLeadingZeros(leadingZeros);
+        }
+        return number;
+    }
+
+    private static int getLeadingZeros(Phonenumber.PhoneNumber number) {
+        return number.isItalianLeadingZero() ? number.getNumberOfLeadingZeros() : 0;
+    }
+}
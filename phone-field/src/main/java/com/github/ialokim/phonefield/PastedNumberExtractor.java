@@ -0,0 +1,93 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.PhoneNumberMatch;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+
+import java.util.Iterator;
+
+/**
+ * Extracts the phone number from pasted text (e.g. "Call me at +49 175 58585858 tomorrow"), so
+ * that only the number itself is handed to the parser.
+ * <p>
+ * The text is scanned once, up to {@link #MAX_SCAN_LENGTH} characters, for runs of digits and
+ * separators. The first run libphonenumber's matcher accepts as a valid number wins, otherwise the
+ * run with the most digits is used. Text without any run is not a phone number at all.
+ */
+final class PastedNumberExtractor {
+
+    /**
+     * Only this many characters of the pasted text are scanned.
+     */
+    static final int MAX_SCAN_LENGTH = 4096;
+
+    /**
+     * Pasted text longer than this is processed on a background thread.
+     */
+    static final int ASYNC_THRESHOLD = 256;
+
+    /**
+     * Runs with less digits are not considered to be phone numbers.
+     */
+    private static final int MIN_DIGITS = 3;
+
+    private PastedNumberExtractor() {
+    }
+
+    /**
+     * Extracts the most likely phone number from the given text.
+     *
+     * @param text          the pasted text
+     * @param defaultRegion the region used for numbers without a country code, may be empty
+     * @return the extracted number with its original punctuation or {@code null} if there is none
+     */
+    static String extract(String text, String defaultRegion) {
+        int length = Math.min(text.length(), MAX_SCAN_LENGTH);
+        int bestStart = -1, bestEnd = -1, bestDigits = 0;
+        int runStart = -1, runEnd = -1, runDigits = 0;
+        int candidates = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : 0;
+            if (c >= '0' && c <= '9') {
+                if (runStart == -1)
+                    runStart = i;
+                runEnd = i + 1;
+                runDigits++;
+            } else if (runStart == -1 && (c == '+' || c == '(')) {
+                runStart = i;
+            } else if (runStart != -1 && isSeparator(c)) {
+                //separators are only part of the run if digits follow
+            } else if (runStart != -1) {
+                if (runDigits >= MIN_DIGITS) {
+                    candidates++;
+                    String candidate = text.substring(runStart, runEnd);
+                    if (isValidNumber(candidate, defaultRegion))
+                        return candidate;
+                    if (runDigits > bestDigits) {
+                        bestStart = runStart;
+                        bestEnd = runEnd;
+                        bestDigits = runDigits;
+                    }
+                }
+                runStart = -1;
+                runDigits = 0;
+                //the current character may start the next run
+                if (c == '+' || c == '(')
+                    runStart = i;
+            }
+        }
+        if (candidates == 0)
+            return null;
+        return text.substring(bestStart, bestEnd);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '-' || c == '.' || c == '/' || c == '(' || c == ')' || c == '\u00A0';
+    }
+
+    private static boolean isValidNumber(String candidate, String defaultRegion) {
+        Iterator<PhoneNumberMatch> matches = PhoneNumberUtil.getInstance()
+                .findNumbers(candidate, defaultRegion, PhoneNumberUtil.Leniency.VALID, Long.MAX_VALUE)
+                .iterator();
+        return matches.hasNext();
+    }
+}
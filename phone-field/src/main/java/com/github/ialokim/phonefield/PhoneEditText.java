@@ -1,10 +1,14 @@
 package com.github.ialokim.phonefield;
 
 import android.content.Context;
+import android.text.InputType;
 import android.util.AttributeSet;
 import android.view.Gravity;
 import android.view.ViewGroup;
 import android.widget.EditText;
+import android.widget.Spinner;
+
+import androidx.core.content.ContextCompat;
 
 /**
  * Implementation of PhoneField that uses an {@link EditText}
@@ -25,6 +29,21 @@ public class PhoneEditText extends PhoneField {
         super(context, attrs, defStyleAttr);
     }
 
+    @Override
+    protected boolean createViews() {
+        //custom layouts of subclasses are always inflated
+        if (getLayoutResId() != R.layout.phone_edit_text)
+            return false;
+        Spinner spinner = createFlagSpinner();
+        EditText editText = new EditText(getContext());
+        editText.setInputType(InputType.TYPE_CLASS_PHONE);
+        editText.setTextColor(ContextCompat.getColor(getContext(), R.color.pf_grey));
+        addView(spinner);
+        addView(editText, new LayoutParams(0, LayoutParams.MATCH_PARENT, 1));
+        setViews(spinner, editText);
+        return true;
+    }
+
     @Override
     protected void updateLayoutAttributes() {
         setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
@@ -1,13 +1,19 @@
 package com.github.ialokim.phonefield;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.text.Editable;
+import android.text.Selection;
 import android.text.TextWatcher;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.ActionMode;
+import android.view.Gravity;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.MotionEvent;
@@ -23,7 +29,6 @@ import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 
@@ -38,24 +43,84 @@ import androidx.annotation.IdRes;
  */
 public abstract class PhoneField extends LinearLayout {
 
+    /**
+     * Label a valid number with its location, e.g. "Berlin".
+     */
+    public static final int LABEL_LOCATION = 1;
+
+    /**
+     * Label a valid mobile number with its original carrier, e.g. "Vodafone".
+     */
+    public static final int LABEL_CARRIER = 2;
+
+    private static boolean sBuildViewsInCode = false;
+    private static boolean sLazyInit = false;
+
     private Spinner mSpinner;
 
     private CountriesAdapter mAdapter;
 
+    private boolean mFullAdapter = false;
+
+    private boolean mRecyclerDropDown = false;
+
+    private boolean mEmojiFlags = false;
+
+    private CountryPickerPopup mCountryPicker;
+
+    private TextWatcher mTextWatcher;
+
+    /**
+     * Indicates the text is being changed by the field itself, which must not run the input pipeline.
+     */
+    private boolean mSelfChange = false;
+
     protected EditText mEditText;
 
     private Country mCountry;
 
-    private PhoneNumberUtil mPhoneUtil = PhoneNumberUtil.getInstance();
+    private PhoneNumberUtil mPhoneUtil;
 
     private PhoneNumberFormattingTextWatcher mPhoneNumberFormatterTextWatcher;
 
     private boolean mAutoFill = false;
     private boolean mAutoFormat = false;
-    private int mDefaultCountryPosition = -1;
+    private Country mDefaultCountry;
+    private boolean mLazyInit;
 
     private boolean isPasting = false;
 
+    /**
+     * Indicates the pasted text is the number already extracted in the background, which must not
+     * be extracted again.
+     */
+    private boolean mPasteExtracted = false;
+
+    private SlowEditLog mSlowEditLog;
+
+    private PhoneFieldStats mStats;
+
+    private PhoneNumberUtil.PhoneNumberType mExampleHintType;
+    private PhoneNumberUtil.PhoneNumberFormat mExampleHintFormat;
+    private String mExampleHintRegion;
+    private CharSequence mOriginalHint;
+
+    private int mNumberLabels = 0;
+    private String mLabelNumber;
+
+    private final CountryData.OnCountryDataChangedListener mCountryDataListener =
+            new CountryData.OnCountryDataChangedListener() {
+                @Override
+                public void onCountryDataChanged(CountryData data) {
+                    post(new Runnable() {
+                        @Override
+                        public void run() {
+                            updateCountryData();
+                        }
+                    });
+                }
+            };
+
     /**
      * Instantiates a new Phone field.
      *
@@ -84,97 +149,155 @@ public abstract class PhoneField extends LinearLayout {
      */
     public PhoneField(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        inflate(getContext(), getLayoutResId(), this);
+        TypedArray ta = getContext().obtainStyledAttributes(attrs, R.styleable.PhoneField);
+        boolean buildViewsInCode = ta.getBoolean(R.styleable.PhoneField_buildViewsInCode, sBuildViewsInCode);
+        mLazyInit = ta.getBoolean(R.styleable.PhoneField_lazyInit, sLazyInit);
+        ta.recycle();
+        //with a running warm-up, the metadata is resolved on first use instead of waiting for it here
+        if (!mLazyInit && !PhoneFieldWarmUp.isStarted())
+            mPhoneUtil = PhoneNumberUtil.getInstance();
+        if (!buildViewsInCode || !createViews())
+            inflate(getContext(), getLayoutResId(), this);
         updateLayoutAttributes();
         prepareView();
         applyAttrs(attrs);
     }
+
+    /**
+     * Sets whether fields without the {@code buildViewsInCode} attribute (e.g. fields created in
+     * code) build their child views in code instead of inflating {@link #getLayoutResId()}.
+     *
+     * @param buildViewsInCode whether to build the child views in code by default
+     */
+    public static void setBuildViewsInCodeByDefault(boolean buildViewsInCode) {
+        sBuildViewsInCode = buildViewsInCode;
+    }
+
+    /**
+     * Sets whether fields without the {@code lazyInit} attribute (e.g. fields created in code)
+     * defer building the countries list and loading the phone number metadata until they are used.
+     *
+     * @param lazyInit whether to initialize fields lazily by default
+     */
+    public static void setLazyInitByDefault(boolean lazyInit) {
+        sLazyInit = lazyInit;
+    }
+
+    /**
+     * Builds the child views in code instead of inflating {@link #getLayoutResId()}.
+     * Implementations have to add the views to this layout and pass them to
+     * {@link #setViews(Spinner, EditText)}.
+     *
+     * @return {@code true} if the views were built, {@code false} to inflate the layout instead
+     */
+    protected boolean createViews() {
+        return false;
+    }
+
+    /**
+     * Sets the views used by this field directly, so that they don't have to be looked up by
+     * their tags in {@link #prepareView()}.
+     *
+     * @param spinner  the flag spinner
+     * @param editText the edit text for the phone number
+     */
+    protected void setViews(Spinner spinner, EditText editText) {
+        mSpinner = spinner;
+        mEditText = editText;
+    }
+
+    /**
+     * Creates the flag spinner with the same attributes as the one of the default xml layouts.
+     *
+     * @return the spinner, not yet added to this layout
+     */
+    protected Spinner createFlagSpinner() {
+        Resources res = getResources();
+        Spinner spinner = new Spinner(getContext(), Spinner.MODE_DROPDOWN);
+        if (Build.VERSION.SDK_INT >= 16) {
+            spinner.setDropDownWidth(res.getDimensionPixelSize(R.dimen.spinner_height));
+            spinner.setPopupBackgroundResource(R.color.pf_white);
+        }
+        LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+                res.getDimensionPixelSize(R.dimen.spinner_width), LayoutParams.WRAP_CONTENT);
+        lp.topMargin = res.getDimensionPixelSize(R.dimen.margin_large);
+        lp.gravity = Gravity.TOP;
+        spinner.setLayoutParams(lp);
+        return spinner;
+    }
+
     /**
      * Prepare view.
      */
     protected void prepareView() {
-        mSpinner = (Spinner) findViewWithTag(getResources().getString(R.string.phonefield_flag_spinner));
-        mEditText = (EditText) findViewWithTag(getResources().getString(R.string.phonefield_edittext));
+        if (mSpinner == null)
+            mSpinner = (Spinner) findViewWithTag(getResources().getString(R.string.phonefield_flag_spinner));
+        if (mEditText == null)
+            mEditText = (EditText) findViewWithTag(getResources().getString(R.string.phonefield_edittext));
 
         if (mSpinner == null || mEditText == null) {
             throw new IllegalStateException("Please provide a valid xml layout");
         }
 
-        mAdapter = new CountriesAdapter(getContext(), getCountriesAsList());
-        mAdapter.sort(new Comparator<Country>() {
-            @Override
-            public int compare(Country c1, Country c2) {
-                return c1.getDisplayName().compareToIgnoreCase(c2.getDisplayName());
-            }
-        });
+        if (mLazyInit) {
+            //the collapsed spinner only needs the flag of the selected country
+            mAdapter = createAdapter(new ArrayList<Country>(1));
+        } else {
+            mAdapter = createSortedAdapter();
+            mFullAdapter = true;
+        }
         mSpinner.setOnTouchListener(new OnTouchListener() {
             @Override
             public boolean onTouch(View v, MotionEvent event) {
+                if (mRecyclerDropDown) {
+                    //the collapsed spinner only shows the flag, the countries are picked in the popup
+                    if (event.getAction() == MotionEvent.ACTION_UP) {
+                        hideKeyboard();
+                        showCountryPicker();
+                    }
+                    return true;
+                }
+                ensureFullAdapter();
                 hideKeyboard();
                 return false;
             }
         });
+        mSpinner.setOnFocusChangeListener(new OnFocusChangeListener() {
+            @Override
+            public void onFocusChange(View v, boolean hasFocus) {
+                if (hasFocus)
+                    ensureFullAdapter();
+            }
+        });
 
-        final TextWatcher textWatcher = new TextWatcher() {
+        mTextWatcher = new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-                //AsYouTypeFormatter should ignore first call on pasting
-                if (mAutoFormat && isPasting)
-                    mPhoneNumberFormatterTextWatcher.mIgnore = true;
+                //pasted text is formatted from scratch, no need to watch for removed separators
+                if (mSelfChange || isPasting)
+                    return;
+                if (mAutoFormat)
+                    mPhoneNumberFormatterTextWatcher.beforeTextChanged(s, start, count, after);
             }
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
+                if (mSelfChange || isPasting)
+                    return;
+                if (mAutoFormat)
+                    mPhoneNumberFormatterTextWatcher.onTextChanged(s, start, before, count);
             }
 
             @Override
             public void afterTextChanged(Editable s) {
-                //ignore change if triggered by AsYouTypeFormatter
-                if (mAutoFormat && mPhoneNumberFormatterTextWatcher.mSelfChange)
+                //ignore changes made by the pipeline itself
+                if (mSelfChange)
                     return;
-
-                String rawNumber = s.toString();
-                if (rawNumber.isEmpty()) {
-                    selectDefaultCountry();
-                } else {
-                    try {
-                        //try to extract phone number information from rawNumber (which can be any string)
-                        Phonenumber.PhoneNumber number = parsePhoneNumber(rawNumber);
-                        selectCountry(number);
-                        if (isPasting) {
-                            //format the number as international number (+49 ...) or as national number
-                            if (mAutoFill)
-                                rawNumber = mPhoneUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
-                            else {
-                                String leadingZeros = new String(new char[number.getNumberOfLeadingZeros()]).replace('\0', '0');
-                                rawNumber = String.valueOf(leadingZeros + number.getNationalNumber());
-                            }
-                        }
-                    } catch (NumberParseException ignored) {
-                        Log.d(PhoneField.class.getName(), ignored.toString());
-                    }
-                    if (isPasting) {
-                        //when pasting, we already tried to parse the string to a phone number, so set it now
-                        isPasting = false;
-                        mEditText.removeTextChangedListener(this);
-                        if (mAutoFormat)
-                            mPhoneNumberFormatterTextWatcher.mIgnore = false;
-                        mEditText.setText(rawNumber);
-                        mEditText.addTextChangedListener(this);
-                        mEditText.setSelection(mEditText.length());
-                    }
-                    if (rawNumber.startsWith("00")) {
-                        rawNumber = rawNumber.replaceFirst("00", "+"); //todo: only valid for Europe??
-                        mEditText.removeTextChangedListener(this);
-                        mEditText.setText(rawNumber);
-                        mEditText.addTextChangedListener(this);
-                        mEditText.setSelection(1);
-                    }
-                }
+                processInput(s);
             }
         };
 
-        mEditText.addTextChangedListener(textWatcher);
+        mEditText.addTextChangedListener(mTextWatcher);
 
         //this callback is only used to capture a pasting event on the editText
         ActionMode.Callback actionModeCallback = new ActionMode.Callback() {
@@ -217,26 +340,7 @@ public abstract class PhoneField extends LinearLayout {
                 if (mCountry == null || mCountry.equals(country))
                     return;
 
-                setError(null);
-                selectCountry(country);
-                String rawInput = getRawInput();
-                if (rawInput.startsWith("+") || rawInput.length() == 0) {
-                    if (mAutoFill) {
-                        String dialCode = mCountry.getDialCode(true);
-                        mEditText.setText(dialCode);
-                        mEditText.setSelection(dialCode.length());
-                    } else {
-                        mEditText.removeTextChangedListener(textWatcher);
-                        mEditText.setText("");
-                        mEditText.addTextChangedListener(textWatcher);
-                    }
-                } else if (mAutoFormat) {
-                    //trigger reformat using the newly selected country
-                    mEditText.removeTextChangedListener(textWatcher);
-                    mEditText.setText(rawInput);
-                    mEditText.setSelection(mEditText.getText().length());
-                    mEditText.addTextChangedListener(textWatcher);
-                }
+                onCountryPicked(country);
             }
 
             @Override
@@ -247,80 +351,449 @@ public abstract class PhoneField extends LinearLayout {
 
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        CountryData.addOnCountryDataChangedListener(mCountryDataListener);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        CountryData.removeOnCountryDataChangedListener(mCountryDataListener);
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Switches to the current {@link CountryData} snapshot, keeping the selected countries.
+     */
+    private void updateCountryData() {
+        if (mDefaultCountry != null)
+            mDefaultCountry = CountryLookup.forCode(mDefaultCountry.getCode());
+        Country selected = mCountry != null ? CountryLookup.forCode(mCountry.getCode()) : null;
+        if (mFullAdapter) {
+            mAdapter = createSortedAdapter();
+            mSpinner.setAdapter(mAdapter);
+        }
+        if (mCountryPicker != null)
+            mCountryPicker.setCountries(getSortedCountries(), Locale.getDefault());
+        if (selected != null)
+            selectCountry(selected);
+        else if (mCountry != null)
+            selectDefaultCountry();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState ss = new SavedState(super.onSaveInstanceState());
+        ss.mCountryCode = mCountry != null ? mCountry.getCode() : null;
+        ss.mText = mEditText.getText().toString();
+        if (mAutoFormat) {
+            ss.mRawNumber = mPhoneNumberFormatterTextWatcher.getRawPhoneNumber();
+            ss.mFormattingStopped = ss.mRawNumber == null;
+        }
+        ss.mSelection = mEditText.getSelectionEnd();
+        return ss;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState ss = (SavedState) state;
+        super.onRestoreInstanceState(ss.getSuperState());
+
+        //put the field directly into its final state, without parsing and formatting again
+        isPasting = false;
+        mPasteExtracted = false;
+        Country country = CountryLookup.forCode(ss.mCountryCode);
+        if (country != null)
+            selectCountry(country);
+        setTextSilently(ss.mText, ss.mSelection);
+        if (mAutoFormat)
+            mPhoneNumberFormatterTextWatcher.restoreState(ss.mRawNumber, ss.mFormattingStopped);
+    }
+
+    @Override
+    protected void dispatchSaveInstanceState(SparseArray<Parcelable> container) {
+        //the state of the children is part of SavedState, restoring it separately would run the watchers again
+        dispatchFreezeSelfOnly(container);
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        dispatchThawSelfOnly(container);
+    }
+
+    private void onCountryPicked(Country country) {
+        setError(null);
+        selectCountry(country);
+        String rawInput = getRawInput();
+        if (rawInput.startsWith("+") || rawInput.length() == 0) {
+            if (mAutoFill) {
+                String dialCode = mCountry.getDialCode(true);
+                setTextSilently(dialCode, dialCode.length());
+                processInput(mEditText.getText());
+            } else {
+                setTextSilently("", 0);
+                //the pipeline does not run for silent changes, the formatter still holds the old number
+                updateNumberLabel(null);
+                if (mAutoFormat)
+                    mPhoneNumberFormatterTextWatcher.restoreState("", false);
+            }
+        } else if (mAutoFormat) {
+            //reformat using the newly selected country, the number itself did not change
+            String formatted = format(rawInput, rawInput.length());
+            if (formatted != null)
+                setTextSilently(formatted, mPhoneNumberFormatterTextWatcher.getRememberedPosition());
+        }
+    }
+
+    /**
+     * The input pipeline, run exactly once for every change of the text by the user: normalizes
+     * the input, detects the country, formats the number and then replaces the text at most once.
+     */
+    private void processInput(Editable s) {
+        String text = s.toString();
+        int cursor = Selection.getSelectionEnd(s);
+        boolean pasting = isPasting;
+        boolean extracted = mPasteExtracted;
+        isPasting = false;
+        mPasteExtracted = false;
+        if (mStats != null)
+            mStats.recordEdit();
+        if (text.isEmpty()) {
+            updateNumberLabel(null);
+            selectDefaultCountry();
+            if (mAutoFormat)
+                format(text, 0);
+            return;
+        }
+        if (pasting && !extracted) {
+            //only hand the number itself to the parser, not the text around it
+            if (text.length() > PastedNumberExtractor.ASYNC_THRESHOLD) {
+                extractPastedNumberInBackground(text);
+                return;
+            }
+            String number = PastedNumberExtractor.extract(text, getDefaultRegion());
+            if (number != null)
+                text = number;
+        }
+        try {
+            //try to extract phone number information from text (which can be any string)
+            long start = startTiming();
+            Phonenumber.PhoneNumber number = parsePhoneNumber(text);
+            endTiming(SlowEditLog.STAGE_PARSE, start);
+            selectCountry(number);
+            updateNumberLabel(number);
+            if (pasting)
+                text = toInputText(number);
+        } catch (NumberParseException ignored) {
+            Log.d(PhoneField.class.getName(), ignored.toString());
+            updateNumberLabel(null);
+        }
+        if (pasting)
+            cursor = text.length();
+        if (text.startsWith("00")) {
+            text = "+" + text.substring(2); //todo: only valid for Europe??
+            cursor = pasting ? text.length() : 1;
+        }
+        if (mAutoFormat) {
+            String formatted = format(text, cursor);
+            if (formatted != null) {
+                text = formatted;
+                cursor = mPhoneNumberFormatterTextWatcher.getRememberedPosition();
+            }
+        }
+        if (!text.contentEquals(s)) {
+            mSelfChange = true;
+            long start = startTiming();
+            s.replace(0, s.length(), text);
+            endTiming(SlowEditLog.STAGE_SET_TEXT, start);
+            mSelfChange = false;
+            Selection.setSelection(s, Math.min(Math.max(cursor, 0), s.length()));
+        }
+    }
+
+    /**
+     * Formats the number as international number (+49 ...) if autoFill is enabled or as national
+     * number otherwise, without any separators.
+     */
+    private String toInputText(Phonenumber.PhoneNumber number) {
+        if (mAutoFill)
+            return getPhoneUtil().format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
+        String leadingZeros = new String(new char[number.getNumberOfLeadingZeros()]).replace('\0', '0');
+        return leadingZeros + number.getNationalNumber();
+    }
+
+    /**
+     * Formats the given text with the AsYouTypeFormatter of the selected country.
+     *
+     * @return the formatted text or {@code null} if formatting is stopped
+     */
+    private String format(String text, int cursor) {
+        long start = startTiming();
+        if (mStats != null)
+            mStats.recordReplay(text.length());
+        String formatted = mPhoneNumberFormatterTextWatcher.format(text, cursor);
+        endTiming(SlowEditLog.STAGE_FORMAT, start);
+        return formatted;
+    }
+
+    /**
+     * Replaces the text without running the input pipeline.
+     */
+    private void setTextSilently(String text, int cursor) {
+        mSelfChange = true;
+        long start = startTiming();
+        mEditText.setText(text);
+        endTiming(SlowEditLog.STAGE_SET_TEXT, start);
+        mSelfChange = false;
+        mEditText.setSelection(Math.min(Math.max(cursor, 0), mEditText.length()));
+    }
+
+    private void showCountryPicker() {
+        if (mCountryPicker == null) {
+            mCountryPicker = new CountryPickerPopup(getContext(), new CountriesRecyclerAdapter.OnCountryClickListener() {
+                @Override
+                public void onCountryClick(Country country) {
+                    if (mCountry == null || mCountry.equals(country))
+                        return;
+                    onCountryPicked(country);
+                }
+            });
+            mCountryPicker.setEmojiFlags(mEmojiFlags);
+        }
+        Locale locale = Locale.getDefault();
+        if (!locale.equals(mCountryPicker.getLocale()))
+            mCountryPicker.setCountries(getSortedCountries(), locale);
+        mCountryPicker.show(mSpinner, mCountry);
+    }
+
     public void applyAttrs(AttributeSet attrs) {
         TypedArray ta = getContext().obtainStyledAttributes(attrs, R.styleable.PhoneField);
         @IdRes int hint = ta.getResourceId(R.styleable.PhoneField_hint, -1);
         String defaultCountry = ta.getString(R.styleable.PhoneField_defaultCountry);
         boolean autoFill = ta.getBoolean(R.styleable.PhoneField_autoFill, false);
         boolean autoFormat = ta.getBoolean(R.styleable.PhoneField_autoFormat, false);
+        boolean recyclerDropDown = ta.getBoolean(R.styleable.PhoneField_recyclerDropDown, false);
+        boolean emojiFlags = ta.getBoolean(R.styleable.PhoneField_emojiFlags, false);
+        int exampleNumberHint = ta.getInt(R.styleable.PhoneField_exampleNumberHint, 0);
+        int numberLabels = ta.getInt(R.styleable.PhoneField_numberLabels, 0);
         if (hint != -1)
             setHint(hint);
         if (defaultCountry != null)
             setDefaultCountry(defaultCountry);
         else {
             //if no defaultCountry is specified, select the one from the current Locale
-            Country locale = mAdapter.getItem(getCountryPosition(Locale.getDefault().getCountry()));
-            selectCountry(locale);
+            Country locale = CountryLookup.forCode(Locale.getDefault().getCountry());
+            if (locale != null)
+                selectCountry(locale);
         }
         if (autoFill)
             setAutoFill(autoFill);
         if (autoFormat)
             setAutoFormat(autoFormat);
+        if (recyclerDropDown)
+            setRecyclerDropDown(recyclerDropDown);
+        if (emojiFlags)
+            setEmojiFlags(emojiFlags);
+        if (exampleNumberHint != 0)
+            setExampleNumberHint(PhoneNumberUtil.PhoneNumberType.MOBILE, exampleNumberHint == 1
+                    ? PhoneNumberUtil.PhoneNumberFormat.NATIONAL
+                    : PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL);
+        if (numberLabels != 0)
+            setNumberLabels(numberLabels);
         ta.recycle();
     }
 
     private Phonenumber.PhoneNumber parsePhoneNumber(String number) throws NumberParseException {
-        String defaultRegion = mCountry != null ? mCountry.getCode().toUpperCase() : "";
-        return mPhoneUtil.parseAndKeepRawInput(number, defaultRegion);
+        return getPhoneUtil().parseAndKeepRawInput(number, getDefaultRegion());
     }
 
-    private void selectCountry(Phonenumber.PhoneNumber number) {
-        if (number == null)
-            return;
-        List<Country> l = Countries.COUNTRIES.get(number.getCountryCode());
-        if (l == null)
-            return;
-        for (Country country : l) {
-            if (country.containsNumber(number.getNationalNumber())) {
-                selectCountry(country);
-                return;
+    private String getDefaultRegion() {
+        return mCountry != null ? mCountry.getCode().toUpperCase() : "";
+    }
+
+    /**
+     * Extracts the phone number from long pasted text on a background thread and sets it
+     * afterwards, unless the text was changed in the meantime. Text without a number is kept.
+     */
+    private void extractPastedNumberInBackground(final String pasted) {
+        isPasting = false;
+        final String defaultRegion = getDefaultRegion();
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final String extracted = PastedNumberExtractor.extract(pasted, defaultRegion);
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (extracted == null || !pasted.equals(mEditText.getText().toString()))
+                            return;
+                        //the extracted number may be long as well, it is parsed right away
+                        mPasteExtracted = true;
+                        setPhoneNumber(extracted);
+                    }
+                });
             }
+        });
+    }
+
+    private PhoneNumberUtil getPhoneUtil() {
+        if (mPhoneUtil == null)
+            mPhoneUtil = PhoneNumberUtil.getInstance();
+        return mPhoneUtil;
+    }
+
+    @Override
+    public void requestChildFocus(View child, View focused) {
+        super.requestChildFocus(child, focused);
+        if (mPhoneUtil == null && focused == mEditText) {
+            //start loading the metadata before the user types the first digit
+            PhoneFieldExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    PhoneNumberUtil.getInstance();
+                }
+            });
         }
     }
 
+    private CountriesAdapter createSortedAdapter() {
+        return createAdapter(getSortedCountries());
+    }
+
+    private CountriesAdapter createAdapter(List<Country> countries) {
+        CountriesAdapter adapter = new CountriesAdapter(getContext(), countries);
+        adapter.setEmojiFlags(mEmojiFlags);
+        return adapter;
+    }
+
+    private List<Country> getSortedCountries() {
+        //the adapter modifies its list, so it gets a copy
+        return new ArrayList<>(CountryRows.get(getContext()).getSortedCountries());
+    }
+
+    /**
+     * Replaces the one-item adapter of a lazily initialized field by the full sorted one,
+     * right before the dropdown is shown.
+     */
+    private void ensureFullAdapter() {
+        if (mFullAdapter)
+            return;
+        mFullAdapter = true;
+        mAdapter = createSortedAdapter();
+        mSpinner.setAdapter(mAdapter);
+        if (mCountry != null)
+            mSpinner.setSelection(mAdapter.getPosition(mCountry), false);
+    }
+
+    private void selectCountry(Phonenumber.PhoneNumber number) {
+        Country country = CountryLookup.forNumber(number);
+        if (country != null)
+            selectCountry(country);
+    }
+
     private void selectCountry(Country country) {
+        long start = startTiming();
         mCountry = country;
         if (mAutoFormat)
             mPhoneNumberFormatterTextWatcher.setCountry(mCountry.getCode());
-        mSpinner.setSelection(mAdapter.getPosition(mCountry));
+        if (mFullAdapter) {
+            mSpinner.setSelection(mAdapter.getPosition(mCountry));
+        } else {
+            mAdapter.setNotifyOnChange(false);
+            mAdapter.clear();
+            mAdapter.add(mCountry);
+            mAdapter.notifyDataSetChanged();
+            mSpinner.setSelection(0);
+        }
+        endTiming(SlowEditLog.STAGE_COUNTRY_SWITCH, start);
+        updateExampleHint();
     }
 
-    private void selectDefaultCountry() {
-        if (mDefaultCountryPosition != -1) {
-            selectCountry(mAdapter.getItem(mDefaultCountryPosition));
+    private void updateExampleHint() {
+        if (mExampleHintType == null || mCountry == null)
+            return;
+        final String region = mCountry.getCode().toUpperCase();
+        if (region.equals(mExampleHintRegion))
+            return;
+        mExampleHintRegion = region;
+        String hint = ExampleNumberHints.getCached(region, mExampleHintType, mExampleHintFormat);
+        if (hint != null) {
+            applyExampleHint(hint);
+            return;
         }
+        //keep the current hint until the example number is ready
+        ExampleNumberHints.load(region, mExampleHintType, mExampleHintFormat, new ExampleNumberHints.Callback() {
+            @Override
+            public void onExampleNumber(final String hint) {
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (region.equals(mExampleHintRegion))
+                            applyExampleHint(hint);
+                    }
+                });
+            }
+        });
     }
 
-    private void hideKeyboard() {
-        ((InputMethodManager) getContext().getSystemService(
-                Context.INPUT_METHOD_SERVICE)).hideSoftInputFromWindow(mEditText.getWindowToken(), 0);
+    private void applyExampleHint(String hint) {
+        setHintText(hint.isEmpty() ? mOriginalHint : hint);
     }
 
-    private List<Country> getCountriesAsList() {
-        List<Country> countries = new ArrayList<>();
-        for (List<Country> c : Countries.COUNTRIES.values()) {
-            countries.addAll(c);
-        }
-        return countries;
+    /**
+     * Requests the label of the given number in the background when it became valid and removes
+     * the label when it is no longer valid. Numbers that stay valid are not looked up again.
+     */
+    private void updateNumberLabel(Phonenumber.PhoneNumber number) {
+        if (mNumberLabels == 0)
+            return;
+        final String key = number != null && getPhoneUtil().isValidNumber(number)
+                ? getPhoneUtil().format(number, PhoneNumberUtil.PhoneNumberFormat.E164) : null;
+        if (key == null ? mLabelNumber == null : key.equals(mLabelNumber))
+            return;
+        mLabelNumber = key;
+        setLabelText(null);
+        if (key == null)
+            return;
+        NumberLabels.load(number, Locale.getDefault(), mNumberLabels, new NumberLabels.Callback() {
+            @Override
+            public void onNumberLabel(final String label) {
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (key.equals(mLabelNumber))
+                            setLabelText(label.isEmpty() ? null : label);
+                    }
+                });
+            }
+        });
     }
 
-    private int getCountryPosition(String countryCode) {
-        for (Country country : getCountriesAsList()) {
-            if (country.getCode().equalsIgnoreCase(countryCode)) {
-                return mAdapter.getPosition(country);
-            }
+    private long startTiming() {
+        return mSlowEditLog != null ? System.nanoTime() : 0;
+    }
+
+    private void endTiming(int stage, long start) {
+        if (mStats != null)
+            mStats.recordStage(stage);
+        if (mSlowEditLog != null)
+            mSlowEditLog.record(stage, start, mEditText.length(), mCountry != null ? mCountry.getCode() : null);
+    }
+
+    private void selectDefaultCountry() {
+        if (mDefaultCountry != null) {
+            selectCountry(mDefaultCountry);
         }
-        return -1;
+    }
+
+    private void hideKeyboard() {
+        ((InputMethodManager) getContext().getSystemService(
+                Context.INPUT_METHOD_SERVICE)).hideSoftInputFromWindow(mEditText.getWindowToken(), 0);
     }
 
 
@@ -349,7 +822,7 @@ public abstract class PhoneField extends LinearLayout {
      */
     public boolean isValid() {
         try {
-            return mPhoneUtil.isValidNumber(parsePhoneNumber(getRawInput()));
+            return getPhoneUtil().isValidNumber(parsePhoneNumber(getRawInput()));
         } catch (NumberParseException e) {
             return false;
         }
@@ -364,7 +837,7 @@ public abstract class PhoneField extends LinearLayout {
     public String getPhoneNumberE164() {
         try {
             Phonenumber.PhoneNumber number = parsePhoneNumber(getRawInput());
-            return mPhoneUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
+            return getPhoneUtil().format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
         } catch (NumberParseException ignored) {
         }
         return null;
@@ -376,7 +849,7 @@ public abstract class PhoneField extends LinearLayout {
      * @param countryCode the country code
      */
     public void setDefaultCountry(String countryCode) {
-        mDefaultCountryPosition = getCountryPosition(countryCode);
+        mDefaultCountry = CountryLookup.forCode(countryCode);
         selectDefaultCountry();
     }
 
@@ -390,6 +863,67 @@ public abstract class PhoneField extends LinearLayout {
         mEditText.setText(rawNumber);
     }
 
+    /**
+     * Loads another phone number into this field, e.g. when it is recycled in a list. All state of
+     * the previous number is reset and the field is put directly into its final state: the number
+     * is parsed once and formatted, without running the input pipeline.
+     *
+     * @param number  the phone number, may be {@code null} or empty
+     * @param isoHint the ISO 3166 code of the country to select if the number does not contain
+     *                one, may be {@code null} to use the default country
+     */
+    public void bind(String number, String isoHint) {
+        resetState();
+        if (mStats != null)
+            mStats.recordEdit();
+        Country country = CountryLookup.forCode(isoHint);
+        if (country == null)
+            country = mDefaultCountry;
+        if (country != null)
+            selectCountry(country);
+        String text = number != null ? number : "";
+        if (!text.isEmpty()) {
+            try {
+                long start = startTiming();
+                Phonenumber.PhoneNumber parsed = parsePhoneNumber(text);
+                endTiming(SlowEditLog.STAGE_PARSE, start);
+                selectCountry(parsed);
+                updateNumberLabel(parsed);
+                text = toInputText(parsed);
+            } catch (NumberParseException ignored) {
+                Log.d(PhoneField.class.getName(), ignored.toString());
+            }
+            if (mAutoFormat) {
+                String formatted = format(text, text.length());
+                if (formatted != null)
+                    text = formatted;
+            }
+        }
+        setTextSilently(text, text.length());
+    }
+
+    /**
+     * Clears this field and resets all state of the current number, e.g. when it is recycled in a
+     * list. Call {@link #bind(String, String)} to load another number.
+     */
+    public void unbind() {
+        resetState();
+        setTextSilently("", 0);
+        selectDefaultCountry();
+    }
+
+    private void resetState() {
+        isPasting = false;
+        mPasteExtracted = false;
+        mSelfChange = false;
+        if (mPhoneNumberFormatterTextWatcher != null)
+            mPhoneNumberFormatterTextWatcher.restoreState("", false);
+        if (mCountryPicker != null)
+            mCountryPicker.dismiss();
+        setError(null);
+        updateNumberLabel(null);
+    }
+
     /**
      * Update layout attributes.
      */
@@ -409,6 +943,84 @@ public abstract class PhoneField extends LinearLayout {
      */
     public abstract void setHint(int resId);
 
+    /**
+     * Sets the hint text, used for the example numbers. The default implementation sets the hint of
+     * the EditText.
+     *
+     * @param hint the hint
+     */
+    protected void setHintText(CharSequence hint) {
+        mEditText.setHint(hint);
+    }
+
+    /**
+     * Gets the hint text, restored when no example number is shown.
+     *
+     * @return the hint
+     */
+    protected CharSequence getHintText() {
+        return mEditText.getHint();
+    }
+
+    /**
+     * Shows the label of a valid number, e.g. its location. Does nothing by default, subclasses
+     * showing labels override it.
+     *
+     * @param label the label or {@code null} to remove it
+     */
+    protected void setLabelText(CharSequence label) {
+    }
+
+    /**
+     * Labels valid numbers with their location and/or carrier, looked up in libphonenumber's
+     * offline data. The lookup runs in the background, only when the number becomes valid; the
+     * prefix data is loaded only for the dial codes and the language in use and kept in a
+     * bounded cache.
+     * <p>
+     * The data is not bundled with the library, add
+     * {@code com.googlecode.libphonenumber:geocoder} for {@link #LABEL_LOCATION} and
+     * {@code com.googlecode.libphonenumber:carrier} for {@link #LABEL_CARRIER} to the app.
+     *
+     * @param labels a combination of {@link #LABEL_LOCATION} and {@link #LABEL_CARRIER}, or 0 to
+     *               show no labels
+     * @throws IllegalStateException if the data for the labels is missing
+     */
+    public void setNumberLabels(int labels) {
+        String missing = NumberLabels.getMissingData(labels);
+        if (missing != null)
+            throw new IllegalStateException("Number labels need the dependency " + missing);
+        if (mNumberLabels != 0)
+            updateNumberLabel(null);
+        mNumberLabels = labels;
+        if (labels != 0 && mEditText.length() > 0) {
+            try {
+                updateNumberLabel(parsePhoneNumber(mEditText.getText().toString()));
+            } catch (NumberParseException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Shows an example number of the selected country as hint, which is updated whenever the
+     * country changes. Example numbers are computed in the background and cached for the whole
+     * process; until one is ready, the current hint is kept.
+     *
+     * @param type   the type of the example number, e.g. {@code MOBILE}, or {@code null} to show
+     *               the hint set by {@link #setHint(int)} again
+     * @param format the format of the example number, e.g. {@code NATIONAL}
+     */
+    public void setExampleNumberHint(PhoneNumberUtil.PhoneNumberType type, PhoneNumberUtil.PhoneNumberFormat format) {
+        if (type != null && format == null) throw new IllegalArgumentException();
+        if (mExampleHintType == null)
+            mOriginalHint = getHintText();
+        else if (type == null)
+            setHintText(mOriginalHint);
+        mExampleHintType = type;
+        mExampleHintFormat = format;
+        mExampleHintRegion = null;
+        updateExampleHint();
+    }
+
     /**
      * Sets the autofill property.
      *
@@ -425,12 +1037,78 @@ public abstract class PhoneField extends LinearLayout {
      */
     public void setAutoFormat(boolean autoFormat) {
         mAutoFormat = autoFormat;
-        if (mAutoFormat) {
-            mPhoneNumberFormatterTextWatcher = new PhoneNumberFormattingTextWatcher();
-            mEditText.addTextChangedListener(mPhoneNumberFormatterTextWatcher);
+        if (mAutoFormat && mPhoneNumberFormatterTextWatcher == null) {
+            //the watcher is not attached to the EditText, it is driven by the input pipeline
+            mPhoneNumberFormatterTextWatcher = mCountry != null
+                    ? new PhoneNumberFormattingTextWatcher(mCountry.getCode())
+                    : new PhoneNumberFormattingTextWatcher();
+        }
+    }
+
+    /**
+     * Sets whether the countries are picked in a RecyclerView based popup instead of the
+     * dropdown of the spinner, which scrolls more smoothly on low-end devices.
+     *
+     * @param recyclerDropDown whether to use the RecyclerView based popup
+     */
+    public void setRecyclerDropDown(boolean recyclerDropDown) {
+        mRecyclerDropDown = recyclerDropDown;
+        if (!mRecyclerDropDown && mCountryPicker != null) {
+            mCountryPicker.dismiss();
+            mCountryPicker = null;
         }
     }
 
+    /**
+     * Sets whether flags are drawn as emoji built from the country code instead of drawables,
+     * which saves decoding a bitmap per row. Flags the font can't draw are still shown as
+     * drawables. The phone-field-lite module has no drawables and always uses emoji.
+     *
+     * @param emojiFlags whether to use emoji flags
+     */
+    public void setEmojiFlags(boolean emojiFlags) {
+        mEmojiFlags = emojiFlags;
+        mAdapter.setEmojiFlags(emojiFlags);
+        if (mCountryPicker != null)
+            mCountryPicker.setEmojiFlags(emojiFlags);
+    }
+
+    /**
+     * Sets the log that records edits taking longer than its budget.
+     *
+     * @param slowEditLog the log to record slow edits to or {@code null} to disable recording
+     */
+    public void setSlowEditLog(SlowEditLog slowEditLog) {
+        mSlowEditLog = slowEditLog;
+    }
+
+    /**
+     * Gets the log that records slow edits.
+     *
+     * @return the log or {@code null} if recording is disabled
+     */
+    public SlowEditLog getSlowEditLog() {
+        return mSlowEditLog;
+    }
+
+    /**
+     * Sets the counters the work of the input pipeline is added to.
+     *
+     * @param stats the counters, may be shared by several fields, or {@code null} to stop counting
+     */
+    public void setStats(PhoneFieldStats stats) {
+        mStats = stats;
+    }
+
+    /**
+     * Gets the counters the work of the input pipeline is added to.
+     *
+     * @return the counters or {@code null} if counting is disabled
+     */
+    public PhoneFieldStats getStats() {
+        return mStats;
+    }
+
     /**
      * Gets raw input.
      *
@@ -452,4 +1130,51 @@ public abstract class PhoneField extends LinearLayout {
      */
     public abstract void setError(String error);
 
+    /**
+     * State of a PhoneField kept across configuration changes.
+     */
+    static class SavedState extends BaseSavedState {
+
+        String mCountryCode;
+        String mText;
+        String mRawNumber;
+        boolean mFormattingStopped;
+        int mSelection;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            mCountryCode = in.readString();
+            mText = in.readString();
+            mRawNumber = in.readString();
+            mFormattingStopped = in.readInt() != 0;
+            mSelection = in.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeString(mCountryCode);
+            out.writeString(mText);
+            out.writeString(mRawNumber);
+            out.writeInt(mFormattingStopped ? 1 : 0);
+            out.writeInt(mSelection);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
 }
@@ -0,0 +1,53 @@
+package com.github.ialokim.phonefield;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Background executor shared by all fields for work that should not run on the UI thread,
+ * e.g. loading the libphonenumber metadata.
+ */
+final class PhoneFieldExecutor {
+
+    private PhoneFieldExecutor() {
+    }
+
+    /**
+     * Runs the given task on the shared background thread.
+     *
+     * @param task the task to run
+     */
+    static void execute(Runnable task) {
+        Holder.EXECUTOR.execute(task);
+    }
+
+    /**
+     * Gets the shared executor, e.g. to pass it to APIs expecting an {@link Executor}.
+     *
+     * @return the executor
+     */
+    static Executor get() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "PhoneField");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
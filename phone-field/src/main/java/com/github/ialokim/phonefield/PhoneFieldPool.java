@@ -0,0 +1,132 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+
+import java.util.ArrayDeque;
+
+/**
+ * Opt-in pool of prebuilt fields, for screens like dialogs or bottom sheets that show a field right
+ * after a tap.
+ * <p>
+ * Views can't be created off the UI thread safely (the spinner's popup needs a Looper), so the
+ * pool splits the work: the expensive, shareable part (phone number metadata, the sorted country
+ * rows of the current locale) is prepared on a background thread, and the fields themselves are
+ * built on the UI thread while it is idle, one per idle pass. Taking a field from the pool then
+ * only costs a queue lookup. A pool holds on to its context, so it should not outlive it.
+ *
+ * @param <T> the type of the pooled fields
+ */
+public class PhoneFieldPool<T extends PhoneField> {
+
+    /**
+     * Creates the fields of a pool.
+     *
+     * @param <T> the type of the fields
+     */
+    public interface Factory<T extends PhoneField> {
+        /**
+         * Called on the UI thread.
+         *
+         * @param context the context of the pool
+         * @return a new field
+         */
+        T create(Context context);
+    }
+
+    private final Context mContext;
+
+    private final Factory<T> mFactory;
+
+    private final int mSize;
+
+    private final ArrayDeque<T> mFields;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private boolean mFilling = false;
+
+    /**
+     * Creates a new, empty pool. Call {@link #prefill()} to start building the fields.
+     *
+     * @param context the context used to create the fields, usually the activity
+     * @param factory creates the fields
+     * @param size    the number of fields kept ready
+     */
+    public PhoneFieldPool(Context context, Factory<T> factory, int size) {
+        if (size <= 0) throw new IllegalArgumentException("size must be positive");
+        mContext = context;
+        mFactory = factory;
+        mSize = size;
+        mFields = new ArrayDeque<>(size);
+    }
+
+    /**
+     * Prepares the shared data on a background thread and then builds fields while the UI thread
+     * is idle, until the pool is full. Can be called from any thread.
+     */
+    public void prefill() {
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                PhoneNumberUtil.getInstance();
+                CountryRows.get(mContext);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        scheduleFill();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Takes a field from the pool, or creates a new one if the pool is empty. The pool is refilled
+     * in the background afterwards. Must be called on the UI thread.
+     *
+     * @return a field that is not attached to any parent yet
+     */
+    public T acquire() {
+        T field = mFields.poll();
+        if (field == null)
+            field = mFactory.create(mContext);
+        scheduleFill();
+        return field;
+    }
+
+    /**
+     * Gets the number of fields ready to be taken.
+     *
+     * @return the number of fields
+     */
+    public int size() {
+        return mFields.size();
+    }
+
+    /**
+     * Removes all prebuilt fields. Must be called on the UI thread.
+     */
+    public void clear() {
+        mFields.clear();
+    }
+
+    private void scheduleFill() {
+        if (mFilling || mFields.size() >= mSize)
+            return;
+        mFilling = true;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                //one field per idle pass, so that input arriving in between is not delayed
+                mFields.add(mFactory.create(mContext));
+                mFilling = mFields.size() < mSize;
+                return mFilling;
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.ialokim.phonefield;
+
+/**
+ * Counts the work done by the input pipeline of one or more fields: how often the input was
+ * parsed, fed to the formatter and written back, and how many characters the formatter had to
+ * replay. Dividing the counts by {@link #getEditCount()} gives the work per keystroke, e.g. to
+ * catch regressions in instrumented tests.
+ * <p>
+ * Counters are updated on the UI thread without synchronization and should be read there, too.
+ */
+public class PhoneFieldStats {
+
+    private final long[] mStageCounts = new long[4];
+
+    private long mEdits = 0;
+
+    private long mReplayedChars = 0;
+
+    /**
+     * Gets how often a stage of the pipeline ran.
+     *
+     * @param stage one of the {@code STAGE_*} constants of {@link SlowEditLog}
+     * @return the number of runs
+     */
+    public long getCount(int stage) {
+        return mStageCounts[stage];
+    }
+
+    /**
+     * Gets how often the input pipeline ran, i.e. the number of changes by the user or by
+     * {@link PhoneField#bind(String, String)}.
+     *
+     * @return the number of edits
+     */
+    public long getEditCount() {
+        return mEdits;
+    }
+
+    /**
+     * Gets the total length of the input the formatter had to replay. The formatter can't edit
+     * in place, so every edit replays the whole input.
+     *
+     * @return the number of characters
+     */
+    public long getReplayedChars() {
+        return mReplayedChars;
+    }
+
+    /**
+     * Resets all counters to 0.
+     */
+    public void reset() {
+        for (int i = 0; i < mStageCounts.length; i++) {
+            mStageCounts[i] = 0;
+        }
+        mEdits = 0;
+        mReplayedChars = 0;
+    }
+
+    void recordEdit() {
+        mEdits++;
+    }
+
+    void recordStage(int stage) {
+        mStageCounts[stage]++;
+    }
+
+    void recordReplay(int length) {
+        mReplayedChars += length;
+    }
+
+    @Override
+    public String toString() {
+        return "edits=" + mEdits
+                + " parses=" + mStageCounts[SlowEditLog.STAGE_PARSE]
+                + " formats=" + mStageCounts[SlowEditLog.STAGE_FORMAT]
+                + " replayedChars=" + mReplayedChars
+                + " countrySwitches=" + mStageCounts[SlowEditLog.STAGE_COUNTRY_SWITCH]
+                + " setTexts=" + mStageCounts[SlowEditLog.STAGE_SET_TEXT];
+    }
+}
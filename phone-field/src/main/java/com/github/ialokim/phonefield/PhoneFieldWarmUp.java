@@ -0,0 +1,88 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import com.google.i18n.phonenumbers.AsYouTypeFormatter;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in warm-up of the state all fields share, meant to be started once at app start, e.g. in
+ * {@code Application.onCreate()}.
+ * <p>
+ * On a background thread, it loads the libphonenumber metadata and the metadata of the default
+ * and the given regions (reading them from disk), initializes the country data, computes the
+ * country list sorted for the current locale and creates a formatter for each region, which the
+ * first field formatting a number of that region takes over. Fields created afterwards find all
+ * of this ready instead of paying for it on the first keystroke.
+ */
+public final class PhoneFieldWarmUp {
+
+    private static volatile boolean sStarted = false;
+
+    private static final ConcurrentHashMap<String, AsYouTypeFormatter> sFormatters = new ConcurrentHashMap<>();
+
+    private PhoneFieldWarmUp() {
+    }
+
+    /**
+     * Starts the warm-up for the region of the default locale and the given regions. Calling it
+     * again has no effect.
+     *
+     * @param context any context of the app
+     * @param regions ISO codes of further regions the user is likely to enter numbers for
+     */
+    public static void start(Context context, String... regions) {
+        if (sStarted)
+            return;
+        sStarted = true;
+        final Context appContext = context.getApplicationContext();
+        final Set<String> warmRegions = new LinkedHashSet<>();
+        String defaultRegion = Locale.getDefault().getCountry();
+        if (!TextUtils.isEmpty(defaultRegion))
+            warmRegions.add(defaultRegion.toUpperCase(Locale.US));
+        for (String region : regions) {
+            warmRegions.add(region.toUpperCase(Locale.US));
+        }
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
+                CountryRows.get(appContext);
+                for (String region : warmRegions) {
+                    //loads the region's metadata, the formatter then also compiles its patterns
+                    phoneUtil.getExampleNumber(region);
+                    AsYouTypeFormatter formatter = phoneUtil.getAsYouTypeFormatter(region);
+                    formatter.inputDigit('1');
+                    formatter.clear();
+                    sFormatters.put(region, formatter);
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes the formatter created by the warm-up for the given region. Each formatter is handed
+     * out once, as formatters keep the state of the number being entered.
+     *
+     * @param region the upper case ISO code of the region
+     * @return the formatter or {@code null} if none is ready (yet) for the region
+     */
+    static AsYouTypeFormatter takeFormatter(String region) {
+        return sFormatters.remove(region);
+    }
+
+    /**
+     * Checks whether the warm-up was started.
+     *
+     * @return {@code true} if {@link #start(Context, String...)} was called
+     */
+    public static boolean isStarted() {
+        return sStarted;
+    }
+}
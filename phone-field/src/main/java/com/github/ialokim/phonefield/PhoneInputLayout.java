@@ -1,10 +1,16 @@
 package com.github.ialokim.phonefield;
 
 import android.content.Context;
+import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import android.text.InputType;
 import android.util.AttributeSet;
+import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.ViewGroup;
+import android.widget.Spinner;
+
+import androidx.core.content.ContextCompat;
 
 /**
  * Implementation of PhoneField that uses {@link TextInputLayout}
@@ -27,6 +33,24 @@ public class PhoneInputLayout extends PhoneField {
         super(context, attrs, defStyleAttr);
     }
 
+    @Override
+    protected boolean createViews() {
+        //custom layouts of subclasses are always inflated
+        if (getLayoutResId() != R.layout.phone_text_input_layout)
+            return false;
+        Spinner spinner = createFlagSpinner();
+        mTextInputLayout = new TextInputLayout(getContext());
+        TextInputEditText editText = new TextInputEditText(mTextInputLayout.getContext());
+        editText.setInputType(InputType.TYPE_CLASS_PHONE);
+        editText.setTextColor(ContextCompat.getColor(getContext(), R.color.pf_grey));
+        editText.setTextSize(TypedValue.COMPLEX_UNIT_PX, getResources().getDimension(R.dimen.text_size));
+        mTextInputLayout.addView(editText, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+        addView(spinner);
+        addView(mTextInputLayout, new LayoutParams(0, LayoutParams.WRAP_CONTENT, 1));
+        setViews(spinner, editText);
+        return true;
+    }
+
     @Override
     protected void updateLayoutAttributes() {
         setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
@@ -38,7 +62,8 @@ public class PhoneInputLayout extends PhoneField {
     @Override
     protected void prepareView() {
         super.prepareView();
-        mTextInputLayout = (TextInputLayout) findViewWithTag(getResources().getString(R.string.phonefield_til_phone));
+        if (mTextInputLayout == null)
+            mTextInputLayout = (TextInputLayout) findViewWithTag(getResources().getString(R.string.phonefield_til_phone));
     }
 
     @Override
@@ -51,6 +76,22 @@ public class PhoneInputLayout extends PhoneField {
         mTextInputLayout.setHint(getContext().getString(resId));
     }
 
+    @Override
+    protected void setHintText(CharSequence hint) {
+        mTextInputLayout.setHint(hint);
+    }
+
+    @Override
+    protected CharSequence getHintText() {
+        return mTextInputLayout.getHint();
+    }
+
+    @Override
+    protected void setLabelText(CharSequence label) {
+        mTextInputLayout.setHelperTextEnabled(label != null);
+        mTextInputLayout.setHelperText(label);
+    }
+
     @Override
     public void setError(String error) {
         if (error == null || error.length() == 0) {
@@ -0,0 +1,178 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Process-wide cache of formatted numbers for list screens like contacts or call logs, keyed by
+ * {@link PackedPhoneNumber packed number}, format and display region. Adapters call
+ * {@link #prefetch(long[], PhoneNumberUtil.PhoneNumberFormat, String)} for upcoming rows, so that
+ * formatting while binding a row is a cache hit.
+ * <p>
+ * The cache is a bounded LRU; all methods are thread-safe.
+ */
+public final class PhoneNumberDisplayFormatter {
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final PhoneNumberDisplayFormatter sInstance = new PhoneNumberDisplayFormatter();
+
+    private final LinkedHashMap<Key, String> mCache = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > mMaxSize;
+        }
+    };
+
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+
+    private PhoneNumberDisplayFormatter() {
+    }
+
+    /**
+     * Gets the process-wide instance.
+     *
+     * @return the formatter
+     */
+    public static PhoneNumberDisplayFormatter getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Sets the number of formatted numbers kept, e.g. a few screens of rows.
+     *
+     * @param maxSize the maximum number of entries
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+        mMaxSize = maxSize;
+        Iterator<Key> eldest = mCache.keySet().iterator();
+        while (mCache.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Formats a number, from the cache if possible.
+     *
+     * @param packed        the packed number
+     * @param format        the format
+     * @param displayRegion the ISO 3166 code of the user's region or {@code null}; with
+     *                      {@code NATIONAL}, numbers of other regions are formatted as dialed
+     *                      from this region, e.g. with its international prefix
+     * @return the formatted number
+     */
+    public String format(long packed, PhoneNumberUtil.PhoneNumberFormat format, String displayRegion) {
+        String region = normalizeRegion(displayRegion);
+        Key key = new Key(packed, format, region);
+        String formatted;
+        synchronized (this) {
+            formatted = mCache.get(key);
+        }
+        if (formatted == null) {
+            formatted = formatUncached(packed, format, region);
+            synchronized (this) {
+                mCache.put(key, formatted);
+            }
+        }
+        return formatted;
+    }
+
+    /**
+     * Formats a number, from the cache if possible.
+     *
+     * @param number        the number, see {@link PackedPhoneNumber#canPack(Phonenumber.PhoneNumber)}
+     * @param format        the format
+     * @param displayRegion the ISO 3166 code of the user's region or {@code null}
+     * @return the formatted number
+     * @see #format(long, PhoneNumberUtil.PhoneNumberFormat, String)
+     */
+    public String format(Phonenumber.PhoneNumber number, PhoneNumberUtil.PhoneNumberFormat format, String displayRegion) {
+        return format(PackedPhoneNumber.pack(number), format, displayRegion);
+    }
+
+    /**
+     * Gets a formatted number only if it is cached, without formatting it.
+     *
+     * @return the formatted number or {@code null} if it is not cached
+     * @see #format(long, PhoneNumberUtil.PhoneNumberFormat, String)
+     */
+    public synchronized String getCached(long packed, PhoneNumberUtil.PhoneNumberFormat format, String displayRegion) {
+        return mCache.get(new Key(packed, format, normalizeRegion(displayRegion)));
+    }
+
+    /**
+     * Formats the given numbers on a background thread and caches them, e.g. for the rows about
+     * to be shown. Numbers already cached are skipped.
+     *
+     * @param packed        the packed numbers, copied so the caller may reuse the array
+     * @param format        the format
+     * @param displayRegion the ISO 3166 code of the user's region or {@code null}
+     */
+    public void prefetch(long[] packed, final PhoneNumberUtil.PhoneNumberFormat format, String displayRegion) {
+        final long[] numbers = packed.clone();
+        final String region = normalizeRegion(displayRegion);
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (long number : numbers) {
+                    format(number, format, region);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes all cached numbers.
+     */
+    public synchronized void clear() {
+        mCache.clear();
+    }
+
+    private static String formatUncached(long packed, PhoneNumberUtil.PhoneNumberFormat format, String region) {
+        PhoneNumberUtil util = PhoneNumberUtil.getInstance();
+        Phonenumber.PhoneNumber number = PackedPhoneNumber.unpack(packed);
+        if (region != null && format == PhoneNumberUtil.PhoneNumberFormat.NATIONAL)
+            return util.formatOutOfCountryCallingNumber(number, region);
+        return util.format(number, format);
+    }
+
+    private static String normalizeRegion(String region) {
+        return region != null && !region.isEmpty() ? region.toUpperCase(Locale.US) : null;
+    }
+
+    private static final class Key {
+        final long mPacked;
+        final PhoneNumberUtil.PhoneNumberFormat mFormat;
+        final String mRegion;
+
+        Key(long packed, PhoneNumberUtil.PhoneNumberFormat format, String region) {
+            mPacked = packed;
+            mFormat = format;
+            mRegion = region;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return mPacked == key.mPacked && mFormat == key.mFormat
+                    && (mRegion == null ? key.mRegion == null : mRegion.equals(key.mRegion));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (mPacked ^ (mPacked >>> 32));
+            result = 31 * result + mFormat.ordinal();
+            result = 31 * result + (mRegion != null ? mRegion.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import java.util.Locale;
  *     <li>added method setCountry(String countryCode) to switch the formatting Locale after constructing</li>
  *     <li>added field mRawPhoneNumber and method getRawPhoneNumber() to keep track of the unformatted number</li>
  *     <li>enhanced logic when to stop formatting (not when deleting the entire string)</li>
+ *     <li>added method format(CharSequence s, int cursor) to format without changing the text</li>
  * </ul>
  */
 public class PhoneNumberFormattingTextWatcher implements TextWatcher {
@@ -50,22 +51,19 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
     /**
      * Indicates the change was caused by ourselves.
      */
-    boolean mSelfChange = false;
+    private boolean mSelfChange = false;
 
     /**
      * Indicates the formatting has been stopped.
      */
     private boolean mStopFormatting;
 
-    /**
-     * Indicated the change should be ignored
-     */
-    boolean mIgnore;
-
     private AsYouTypeFormatter mFormatter;
 
     private String mRawPhoneNumber = "";
 
+    private String mCountryCode;
+
     /**
      * The formatting is based on the current system locale and future locale changes
      * may not take effect on this instance.
@@ -82,7 +80,7 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
      */
     PhoneNumberFormattingTextWatcher(String countryCode) {
         if (countryCode == null) throw new IllegalArgumentException();
-        mFormatter = PhoneNumberUtil.getInstance().getAsYouTypeFormatter(countryCode);
+        mCountryCode = countryCode;
     }
 
     /**
@@ -93,7 +91,51 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
      */
     void setCountry(String countryCode) {
         if (countryCode == null) throw new IllegalArgumentException();
-        mFormatter = PhoneNumberUtil.getInstance().getAsYouTypeFormatter(countryCode.toUpperCase());
+        mFormatter = null;
+        mCountryCode = countryCode;
+    }
+
+    /**
+     * Get the formatter for the current country, creating it on first use so that the metadata
+     * is not loaded before the user starts typing. A formatter of {@link PhoneFieldWarmUp} is
+     * taken over if there is one.
+     */
+    private AsYouTypeFormatter getFormatter() {
+        if (mFormatter == null) {
+            String region = mCountryCode.toUpperCase(Locale.US);
+            mFormatter = PhoneFieldWarmUp.takeFormatter(region);
+            if (mFormatter == null)
+                mFormatter = PhoneNumberUtil.getInstance().getAsYouTypeFormatter(region);
+        }
+        return mFormatter;
+    }
+
+    /**
+     * Format the given text, as {@link #afterTextChanged(Editable)} would do, but without changing
+     * any text. Used by {@link PhoneField}, which applies the result itself.
+     *
+     * @param s      the text to format
+     * @param cursor the position of the cursor in {@code s}
+     * @return the formatted text or {@code null} if the formatting is stopped
+     */
+    String format(CharSequence s, int cursor) {
+        if (mStopFormatting) {
+            // Restart the formatting when all texts were clear.
+            mStopFormatting = !(s.length() == 0);
+            if (!mStopFormatting)
+                mRawPhoneNumber = "";
+            return null;
+        }
+        return reformat(s, cursor);
+    }
+
+    /**
+     * Get the position of the cursor in the text returned by the last call of {@link #format(CharSequence, int)}.
+     *
+     * @return the position
+     */
+    int getRememberedPosition() {
+        return getFormatter().getRememberedPosition();
     }
 
     /**
@@ -106,10 +148,23 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
         return mStopFormatting ? null : mRawPhoneNumber;
     }
 
+    /**
+     * Restore the state after the text was set without this watcher being attached,
+     * e.g. when restoring the instance state.
+     *
+     * @param rawPhoneNumber the unformatted phone number
+     * @param stopFormatting whether the formatting had been stopped
+     */
+    void restoreState(String rawPhoneNumber, boolean stopFormatting) {
+        mRawPhoneNumber = rawPhoneNumber != null ? rawPhoneNumber : "";
+        mStopFormatting = stopFormatting;
+        mSelfChange = false;
+    }
+
     @Override
     public void beforeTextChanged(CharSequence s, int start, int count,
                                   int after) {
-        if (mSelfChange || mStopFormatting || mIgnore) {
+        if (mSelfChange || mStopFormatting) {
             return;
         }
         // If the user manually deleted any non-dialable characters, stop formatting
@@ -121,7 +176,7 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
 
     @Override
     public void onTextChanged(CharSequence s, int start, int before, int count) {
-        if (mSelfChange || mStopFormatting || mIgnore) {
+        if (mSelfChange || mStopFormatting) {
             return;
         }
         // If the user inserted any non-dialable characters, stop formatting
@@ -138,13 +193,13 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
             mStopFormatting = !(s.length() == 0);
             return;
         }
-        if (mSelfChange || mIgnore) {
+        if (mSelfChange) {
             // Ignore the change caused by s.replace().
             return;
         }
         String formatted = reformat(s, Selection.getSelectionEnd(s));
         if (formatted != null) {
-            int rememberedPos = mFormatter.getRememberedPosition();
+            int rememberedPos = getFormatter().getRememberedPosition();
             mSelfChange = true;
             s.replace(0, s.length(), formatted, 0, formatted.length());
             // The text could be changed by other TextWatcher after we changed it. If we found the
@@ -165,7 +220,8 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
         // The index of char to the leftward of the cursor.
         int curIndex = cursor - 1;
         String formatted = null;
-        mFormatter.clear();
+        AsYouTypeFormatter formatter = getFormatter();
+        formatter.clear();
         mRawPhoneNumber = "";
         char lastNonSeparator = 0;
         boolean hasCursor = false;
@@ -191,13 +247,15 @@ public class PhoneNumberFormattingTextWatcher implements TextWatcher {
     }
 
     private String getFormattedNumber(char lastNonSeparator, boolean hasCursor) {
-        return hasCursor ? mFormatter.inputDigitAndRememberPosition(lastNonSeparator)
-                : mFormatter.inputDigit(lastNonSeparator);
+        AsYouTypeFormatter formatter = getFormatter();
+        return hasCursor ? formatter.inputDigitAndRememberPosition(lastNonSeparator)
+                : formatter.inputDigit(lastNonSeparator);
     }
 
     private void stopFormatting() {
         mStopFormatting = true;
-        mFormatter.clear();
+        if (mFormatter != null)
+            mFormatter.clear();
     }
 
     private boolean hasSeparator(final CharSequence s, final int start, final int count) {
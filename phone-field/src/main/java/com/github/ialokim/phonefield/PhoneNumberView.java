@@ -0,0 +1,332 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Layout;
+import android.text.PrecomputedText;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import androidx.core.content.ContextCompat;
+
+/**
+ * Lightweight, read-only view of a phone number with the flag of its country, e.g. for rows of
+ * contact lists, drawing both in a single {@link #onDraw(Canvas)}.
+ * <p>
+ * Everything expensive is done ahead of time by {@link Content#create(Params, String, String)},
+ * which can run on any thread: the number is parsed, its country detected the same way
+ * {@link PhoneField} does, and the text is formatted and laid out ({@link PrecomputedText} on
+ * API 28+). Binding a row with {@link #setContent(Content)} then neither parses nor measures.
+ */
+public class PhoneNumberView extends View {
+
+    private final TextPaint mTextPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+
+    private final int mFlagSize;
+
+    private final int mFlagMargin;
+
+    private boolean mEmojiFlags = false;
+
+    private Params mParams;
+
+    private Content mContent;
+
+    private Drawable mFlag;
+
+    private int mFlagResId = 0;
+
+    public PhoneNumberView(Context context) {
+        this(context, null);
+    }
+
+    public PhoneNumberView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public PhoneNumberView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        Resources res = getResources();
+        mFlagSize = res.getDimensionPixelSize(R.dimen.flag_size);
+        mFlagMargin = res.getDimensionPixelSize(R.dimen.margin_medium);
+        TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.PhoneNumberView);
+        mTextPaint.setTextSize(ta.getDimension(R.styleable.PhoneNumberView_android_textSize,
+                res.getDimension(R.dimen.text_size)));
+        mTextPaint.setColor(ta.getColor(R.styleable.PhoneNumberView_android_textColor,
+                ContextCompat.getColor(context, R.color.pf_grey)));
+        mEmojiFlags = ta.getBoolean(R.styleable.PhoneNumberView_emojiFlags, false);
+        ta.recycle();
+    }
+
+    /**
+     * Gets the parameters the content of this view has to be created with. They are immutable
+     * and the same for all views with the same attributes, so adapters can get them once and
+     * use them on any thread.
+     *
+     * @return the parameters
+     */
+    public Params getParams() {
+        if (mParams == null)
+            mParams = new Params(getContext(), mTextPaint, mEmojiFlags);
+        return mParams;
+    }
+
+    /**
+     * Shows precomputed content, without parsing or measuring.
+     *
+     * @param content the content created with {@link #getParams()}, or {@code null} to show nothing
+     */
+    public void setContent(Content content) {
+        Content old = mContent;
+        mContent = content;
+        int flagResId = content != null && content.mFlagEmoji == null ? content.mFlagResId : 0;
+        if (flagResId != mFlagResId) {
+            mFlagResId = flagResId;
+            mFlag = flagResId != 0 ? ContextCompat.getDrawable(getContext(), flagResId) : null;
+            if (mFlag != null)
+                mFlag.setBounds(0, 0, mFlagSize, mFlagSize);
+        }
+        if (old == null || content == null || old.mText.getWidth() != content.mText.getWidth()
+                || old.mText.getHeight() != content.mText.getHeight())
+            requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Gets the shown content.
+     *
+     * @return the content or {@code null}
+     */
+    public Content getContent() {
+        return mContent;
+    }
+
+    /**
+     * Shows a number, creating its content on the calling thread. Prefer creating the content in
+     * the background and passing it to {@link #setContent(Content)} in lists.
+     *
+     * @param number  the phone number
+     * @param isoHint the ISO 3166 code of the region used for numbers without a country code
+     */
+    public void setNumber(String number, String isoHint) {
+        setContent(Content.create(getParams(), number, isoHint));
+    }
+
+    /**
+     * Sets whether the flag is drawn as emoji where the font supports it, see
+     * {@link PhoneField#setEmojiFlags(boolean)}. Content created before has to be created again.
+     *
+     * @param emojiFlags whether to use emoji flags
+     */
+    public void setEmojiFlags(boolean emojiFlags) {
+        if (mEmojiFlags == emojiFlags)
+            return;
+        mEmojiFlags = emojiFlags;
+        mParams = null;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getPaddingLeft() + mFlagSize + mFlagMargin + getPaddingRight();
+        int height = mFlagSize;
+        if (mContent != null) {
+            width += mContent.mText.getWidth();
+            height = Math.max(height, mContent.mText.getHeight());
+        }
+        height += getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mContent == null)
+            return;
+        int top = getPaddingTop();
+        int contentHeight = getHeight() - top - getPaddingBottom();
+        int x = getPaddingLeft();
+        canvas.save();
+        canvas.translate(x, top + (contentHeight - mFlagSize) / 2);
+        if (mContent.mFlagEmoji != null) {
+            canvas.translate((mFlagSize - mContent.mFlagEmoji.getWidth()) / 2,
+                    (mFlagSize - mContent.mFlagEmoji.getHeight()) / 2);
+            mContent.mFlagEmoji.draw(canvas);
+        } else if (mFlag != null) {
+            mFlag.draw(canvas);
+        }
+        canvas.restore();
+        canvas.save();
+        canvas.translate(x + mFlagSize + mFlagMargin, top + (contentHeight - mContent.mText.getHeight()) / 2);
+        mContent.mText.draw(canvas);
+        canvas.restore();
+    }
+
+    /**
+     * Immutable snapshot of the attributes content is laid out with.
+     */
+    public static final class Params {
+
+        final Context mContext;
+
+        final TextPaint mTextPaint;
+
+        final TextPaint mEmojiPaint;
+
+        final boolean mEmojiFlags;
+
+        final Object mPrecomputedParams;
+
+        Params(Context context, TextPaint textPaint, boolean emojiFlags) {
+            mContext = context.getApplicationContext();
+            mTextPaint = new TextPaint(textPaint);
+            mEmojiPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+            mEmojiPaint.setTextSize(context.getResources().getDimension(R.dimen.flag_emoji_text_size));
+            mEmojiFlags = emojiFlags;
+            mPrecomputedParams = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                    ? new PrecomputedText.Params.Builder(mTextPaint).build() : null;
+        }
+    }
+
+    /**
+     * Immutable, fully laid out content of a {@link PhoneNumberView}.
+     */
+    public static final class Content {
+
+        /**
+         * Callback for content created in the background.
+         */
+        public interface Callback {
+            /**
+             * Called on the UI thread.
+             *
+             * @param content the content
+             */
+            void onContent(Content content);
+        }
+
+        final Country mCountry;
+
+        final String mFormatted;
+
+        final Layout mText;
+
+        final int mFlagResId;
+
+        /**
+         * The laid out emoji flag, or {@code null} if the drawable is used.
+         */
+        final Layout mFlagEmoji;
+
+        private Content(Country country, String formatted, Layout text, int flagResId, Layout flagEmoji) {
+            mCountry = country;
+            mFormatted = formatted;
+            mText = text;
+            mFlagResId = flagResId;
+            mFlagEmoji = flagEmoji;
+        }
+
+        /**
+         * Creates the content for a number. Can be called on any thread.
+         *
+         * @param params  the parameters of the views the content is shown in
+         * @param number  the phone number
+         * @param isoHint the ISO 3166 code of the region used for numbers without a country
+         *                code, may be {@code null}
+         * @return the content
+         */
+        public static Content create(Params params, String number, String isoHint) {
+            String region = isoHint != null ? isoHint.toUpperCase() : "";
+            Country country = CountryLookup.forCode(isoHint);
+            String formatted = number != null ? number : "";
+            try {
+                PhoneNumberUtil util = PhoneNumberUtil.getInstance();
+                Phonenumber.PhoneNumber parsed = util.parse(formatted, region);
+                Country detected = CountryLookup.forNumber(parsed);
+                if (detected != null)
+                    country = detected;
+                formatted = PackedPhoneNumber.canPack(parsed)
+                        ? PhoneNumberDisplayFormatter.getInstance().format(PackedPhoneNumber.pack(parsed),
+                        PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL, null)
+                        : util.format(parsed, PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL);
+            } catch (NumberParseException ignored) {
+            }
+            int flagResId = 0;
+            Layout flagEmoji = null;
+            if (country != null) {
+                CountryRow row = CountryRows.get(params.mContext).getRow(country);
+                if (row == null)
+                    row = new CountryRow(params.mContext, country);
+                flagResId = row.mFlagResId;
+                if (flagResId == 0 || (params.mEmojiFlags && row.hasFlagGlyph()))
+                    flagEmoji = createLayout(row.mFlagEmoji, params.mEmojiPaint, null);
+            }
+            Layout text = createLayout(formatted, params.mTextPaint, params.mPrecomputedParams);
+            return new Content(country, formatted, text, flagResId, flagEmoji);
+        }
+
+        /**
+         * Creates the content for a number on a background thread.
+         *
+         * @param callback called on the UI thread with the content
+         * @see #create(Params, String, String)
+         */
+        public static void createAsync(final Params params, final String number, final String isoHint,
+                                       final Callback callback) {
+            final Handler handler = new Handler(Looper.getMainLooper());
+            PhoneFieldExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Content content = create(params, number, isoHint);
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onContent(content);
+                        }
+                    });
+                }
+            });
+        }
+
+        /**
+         * Gets the detected country.
+         *
+         * @return the country or {@code null} if none was detected
+         */
+        public Country getCountry() {
+            return mCountry;
+        }
+
+        /**
+         * Gets the formatted number.
+         *
+         * @return the number as shown
+         */
+        public String getFormattedNumber() {
+            return mFormatted;
+        }
+
+        @SuppressWarnings("deprecation")
+        private static Layout createLayout(CharSequence text, TextPaint paint, Object precomputedParams) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && precomputedParams != null)
+                text = PrecomputedText.create(text, (PrecomputedText.Params) precomputedParams);
+            int width = (int) Math.ceil(Layout.getDesiredWidth(text, paint));
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                        .setIncludePad(false)
+                        .build();
+            }
+            return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+        }
+    }
+}
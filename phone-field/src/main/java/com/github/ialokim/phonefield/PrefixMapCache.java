@@ -0,0 +1,138 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.Phonenumber;
+import com.google.i18n.phonenumbers.prefixmapper.PhonePrefixMap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded replacement for libphonenumber's {@code PrefixFileReader}, which keeps every prefix
+ * file it ever loaded. Files are only loaded for the dial code and language actually looked up
+ * and the least recently used ones are dropped once more than the given number are held.
+ */
+final class PrefixMapCache {
+
+    /**
+     * The prefix files of the offline geocoder.
+     */
+    static final String GEOCODING_DIRECTORY = "/com/google/i18n/phonenumbers/geocoding/data/";
+
+    /**
+     * The prefix files of the carrier mapper.
+     */
+    static final String CARRIER_DIRECTORY = "/com/google/i18n/phonenumbers/carrier/data/";
+
+    private final String mDirectory;
+
+    //values are null for files that don't exist, so that missing files are not looked up again
+    private final LinkedHashMap<String, PhonePrefixMap> mMaps;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param directory  the resource directory of the prefix files
+     * @param maxEntries the maximum number of files kept in memory
+     */
+    PrefixMapCache(String directory, final int maxEntries) {
+        mDirectory = directory;
+        mMaps = new LinkedHashMap<String, PhonePrefixMap>(maxEntries + 1, 1, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PhonePrefixMap> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Looks up the description of the given number, falling back to English like libphonenumber
+     * does for languages other than Chinese, Japanese and Korean.
+     *
+     * @param number   the number
+     * @param language the language code, e.g. {@code de}
+     * @param region   the region of the user's locale, used to pick traditional Chinese
+     * @return the description or an empty string if there is none
+     */
+    synchronized String lookup(Phonenumber.PhoneNumber number, String language, String region) {
+        int prefix = getFilePrefix(number);
+        String description = null;
+        if ("zh".equals(language) && ("TW".equals(region) || "HK".equals(region) || "MO".equals(region)))
+            description = lookup(number, prefix + "_zh_Hant");
+        if (description == null || description.isEmpty())
+            description = lookup(number, prefix + "_" + language);
+        if ((description == null || description.isEmpty()) && mayFallBackToEnglish(language))
+            description = lookup(number, prefix + "_en");
+        return description != null ? description : "";
+    }
+
+    /**
+     * Checks whether the prefix files are on the classpath. They are not a dependency of the
+     * library, apps showing number labels add libphonenumber's geocoder or carrier artifact.
+     *
+     * @return true if the directory of this cache has data
+     */
+    boolean hasData() {
+        return PrefixMapCache.class.getResource(mDirectory + "config") != null;
+    }
+
+    /**
+     * Gets the number of files held in memory, including the ones found to be missing.
+     *
+     * @return the number of files
+     */
+    synchronized int size() {
+        return mMaps.size();
+    }
+
+    /**
+     * Gets the prefix the files of a number are named with. That's the dial code, except for the
+     * North American Numbering Plan whose files are split by area code, e.g. {@code 1650_en}.
+     */
+    static int getFilePrefix(Phonenumber.PhoneNumber number) {
+        int countryCode = number.getCountryCode();
+        if (countryCode != 1)
+            return countryCode;
+        return 1000 + (int) (number.getNationalNumber() / 10000000);
+    }
+
+    private String lookup(Phonenumber.PhoneNumber number, String fileName) {
+        PhonePrefixMap map;
+        if (mMaps.containsKey(fileName)) {
+            map = mMaps.get(fileName);
+        } else {
+            map = load(fileName);
+            mMaps.put(fileName, map);
+        }
+        return map != null ? map.lookup(number) : null;
+    }
+
+    private PhonePrefixMap load(String fileName) {
+        InputStream source = PrefixMapCache.class.getResourceAsStream(mDirectory + fileName);
+        if (source == null)
+            return null;
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(source);
+            PhonePrefixMap map = new PhonePrefixMap();
+            map.readExternal(in);
+            return map;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            try {
+                if (in != null)
+                    in.close();
+                else
+                    source.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static boolean mayFallBackToEnglish(String language) {
+        return !language.equals("zh") && !language.equals("ja") && !language.equals("ko");
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.ialokim.phonefield;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Fixed-size ring buffer that records edits of a {@link PhoneField} whose processing took longer
+ * than a configurable budget. All storage is allocated upfront, so recording an entry does not
+ * allocate and edits within the budget only cost a comparison.
+ * <p>
+ * The buffer can be shared by several fields and dumped at any time, e.g. into a bug report.
+ */
+public class SlowEditLog {
+
+    /**
+     * Parsing the input with libphonenumber.
+     */
+    public static final int STAGE_PARSE = 0;
+
+    /**
+     * Formatting the input with the AsYouTypeFormatter.
+     */
+    public static final int STAGE_FORMAT = 1;
+
+    /**
+     * Switching the selected country (including the spinner update).
+     */
+    public static final int STAGE_COUNTRY_SWITCH = 2;
+
+    /**
+     * Replacing the text of the EditText programmatically.
+     */
+    public static final int STAGE_SET_TEXT = 3;
+
+    private static final String[] STAGE_NAMES = {"parse", "format", "country switch", "setText"};
+
+    private final long[] mTimestamps;
+    private final int[] mInputLengths;
+    private final String[] mRegions;
+    private final int[] mStages;
+    private final long[] mDurations;
+
+    private volatile long mBudgetNanos;
+
+    private int mNext = 0;
+    private int mSize = 0;
+
+    /**
+     * Creates a new log.
+     *
+     * @param capacity     the maximum number of entries kept, older entries are overwritten
+     * @param budgetMillis edits taking longer than this are recorded
+     */
+    public SlowEditLog(int capacity, long budgetMillis) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        mTimestamps = new long[capacity];
+        mInputLengths = new int[capacity];
+        mRegions = new String[capacity];
+        mStages = new int[capacity];
+        mDurations = new long[capacity];
+        setBudgetMillis(budgetMillis);
+    }
+
+    /**
+     * Sets the budget an edit stage may take before it is recorded.
+     *
+     * @param budgetMillis the budget in milliseconds
+     */
+    public void setBudgetMillis(long budgetMillis) {
+        mBudgetNanos = budgetMillis * 1000000L;
+    }
+
+    /**
+     * Records the given stage if it took longer than the budget.
+     *
+     * @param stage       one of the {@code STAGE_*} constants
+     * @param startNanos  the value of {@link System#nanoTime()} when the stage started
+     * @param inputLength the length of the input that was processed
+     * @param region      the ISO code of the selected country, may be {@code null}
+     */
+    public void record(int stage, long startNanos, int inputLength, String region) {
+        long duration = System.nanoTime() - startNanos;
+        if (duration <= mBudgetNanos)
+            return;
+        synchronized (this) {
+            int i = mNext;
+            mTimestamps[i] = System.currentTimeMillis();
+            mInputLengths[i] = inputLength;
+            mRegions[i] = region;
+            mStages[i] = stage;
+            mDurations[i] = duration;
+            mNext = (i + 1) % mTimestamps.length;
+            if (mSize < mTimestamps.length)
+                mSize++;
+        }
+    }
+
+    /**
+     * Gets the number of recorded entries.
+     *
+     * @return the number of entries currently held, at most the capacity
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * Removes all recorded entries.
+     */
+    public synchronized void clear() {
+        mNext = 0;
+        mSize = 0;
+        for (int i = 0; i < mRegions.length; i++) {
+            mRegions[i] = null;
+        }
+    }
+
+    /**
+     * Writes all recorded entries, oldest first, one per line.
+     *
+     * @param out where to write the entries to
+     * @throws IOException if writing to {@code out} fails
+     */
+    public synchronized void dump(Appendable out) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        int capacity = mTimestamps.length;
+        int first = (mNext - mSize + capacity) % capacity;
+        for (int n = 0; n < mSize; n++) {
+            int i = (first + n) % capacity;
+            out.append(dateFormat.format(new Date(mTimestamps[i])))
+                    .append(' ').append(STAGE_NAMES[mStages[i]])
+                    .append(" region=").append(String.valueOf(mRegions[i]))
+                    .append(" length=").append(String.valueOf(mInputLengths[i]))
+                    .append(" duration=").append(String.format(Locale.US, "%.3fms", mDurations[i] / 1000000d))
+                    .append('\n');
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            dump(sb);
+        } catch (IOException ignored) {
+            //StringBuilder does not throw
+        }
+        return sb.toString();
+    }
+}
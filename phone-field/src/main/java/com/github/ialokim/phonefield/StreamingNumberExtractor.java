@@ -0,0 +1,125 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.PhoneNumberMatch;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Finds phone numbers in text read from a {@link Reader}, e.g. chat logs or imported documents,
+ * and detects their country the same way {@link PhoneField} does.
+ * <p>
+ * The text is read in chunks of a fixed size, so memory use does not depend on the length of the
+ * input. Each chunk is scanned together with the end of the previous one, so numbers crossing a
+ * chunk boundary are found as well.
+ */
+public class StreamingNumberExtractor {
+
+    /**
+     * Callback for every phone number found.
+     */
+    public interface OnNumberFoundListener {
+        /**
+         * Called for each number, in the order they appear in the input.
+         *
+         * @param offset  the offset of the number's first character in the input
+         * @param e164    the number formatted as E164
+         * @param country the detected country or {@code null} if it is not part of {@link Countries}
+         */
+        void onNumberFound(long offset, String e164, Country country);
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Numbers starting this close to the end of a chunk are only searched in the next chunk,
+     * which has to be longer than any phone number including its punctuation.
+     */
+    private static final int OVERLAP = 256;
+
+    /**
+     * Characters kept in front of the overlap, so the matcher sees what precedes a number.
+     */
+    private static final int CONTEXT = 32;
+
+    private final PhoneNumberUtil mPhoneUtil = PhoneNumberUtil.getInstance();
+
+    private final String mDefaultRegion;
+
+    private final PhoneNumberUtil.Leniency mLeniency;
+
+    private final char[] mBuffer;
+
+    /**
+     * Creates a new extractor that only reports valid numbers and reads 64k chars at a time.
+     *
+     * @param defaultRegion the ISO 3166 code of the region used for numbers without a country code
+     */
+    public StreamingNumberExtractor(String defaultRegion) {
+        this(defaultRegion, PhoneNumberUtil.Leniency.VALID, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new extractor.
+     *
+     * @param defaultRegion the ISO 3166 code of the region used for numbers without a country code
+     * @param leniency      the leniency used by libphonenumber to accept a number
+     * @param chunkSize     the number of chars read at a time
+     */
+    public StreamingNumberExtractor(String defaultRegion, PhoneNumberUtil.Leniency leniency, int chunkSize) {
+        if (chunkSize <= 2 * OVERLAP) throw new IllegalArgumentException("chunkSize must be larger than " + 2 * OVERLAP);
+        mDefaultRegion = defaultRegion != null ? defaultRegion.toUpperCase() : null;
+        mLeniency = leniency;
+        mBuffer = new char[chunkSize];
+    }
+
+    /**
+     * Reads the given reader until its end and reports all numbers found. The reader is not closed.
+     * An extractor must not be used by several threads at the same time.
+     *
+     * @param reader   the text to search
+     * @param listener called for every number found
+     * @return the number of chars read
+     * @throws IOException if reading fails
+     */
+    public long extract(Reader reader, OnNumberFoundListener listener) throws IOException {
+        char[] buf = mBuffer;
+        long base = 0;
+        int len = 0;
+        int resume = 0;
+        boolean eof = false;
+        while (true) {
+            while (len < buf.length) {
+                int read = reader.read(buf, len, buf.length - len);
+                if (read == -1) {
+                    eof = true;
+                    break;
+                }
+                len += read;
+            }
+            //numbers starting before safeEnd are completely within the buffer
+            int safeEnd = eof ? len : len - OVERLAP;
+            for (PhoneNumberMatch match : mPhoneUtil.findNumbers(CharBuffer.wrap(buf, 0, len),
+                    mDefaultRegion, mLeniency, Long.MAX_VALUE)) {
+                if (match.start() < resume)
+                    continue;
+                if (match.start() >= safeEnd)
+                    break;
+                Phonenumber.PhoneNumber number = match.number();
+                listener.onNumberFound(base + match.start(),
+                        mPhoneUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164),
+                        CountryLookup.forNumber(number));
+            }
+            if (eof)
+                return base + len;
+            int keepFrom = safeEnd - CONTEXT;
+            System.arraycopy(buf, keepFrom, buf, 0, len - keepFrom);
+            base += keepFrom;
+            len -= keepFrom;
+            resume = CONTEXT;
+        }
+    }
+}
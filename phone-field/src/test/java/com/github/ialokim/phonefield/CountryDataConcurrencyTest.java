@@ -0,0 +1,193 @@
+package com.github.ialokim.phonefield;
+
+import android.content.Context;
+
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Swaps country data snapshots while lookups run on several threads and on the shared background
+ * executor. Every lookup has to see one complete snapshot, never a mix of two.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CountryDataConcurrencyTest {
+
+    private static final int READERS = 4;
+
+    private static final int SWAPS = 200;
+
+    private CountryData mBuiltIn;
+
+    //the two snapshots disagree about which country these numbers belong to
+    private CountryData mFirst;
+    private CountryData mSecond;
+
+    private Phonenumber.PhoneNumber mMountainView;
+    private Phonenumber.PhoneNumber mToronto;
+
+    private final AtomicReference<Throwable> mFailure = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws NumberParseException {
+        mBuiltIn = CountryData.getCurrent();
+        mFirst = CountryData.fromMap(Countries.COUNTRIES, 1);
+        mSecond = withCanadianAreaCodes(Countries.COUNTRIES, 2, "650");
+        mMountainView = PhoneNumberUtil.getInstance().parse("+16502530000", null);
+        mToronto = PhoneNumberUtil.getInstance().parse("+14165551234", null);
+        CountryData.publish(mFirst);
+    }
+
+    @After
+    public void tearDown() {
+        CountryData.publish(mBuiltIn);
+    }
+
+    @Test
+    public void snapshotsDisagree() {
+        assertEquals("us", mFirst.getCountry(mMountainView).getCode());
+        assertEquals("ca", mFirst.getCountry(mToronto).getCode());
+        assertEquals("ca", mSecond.getCountry(mMountainView).getCode());
+        assertNull(mSecond.getCountry(mToronto));
+    }
+
+    @Test
+    public void lookupsSeeCompleteSnapshotsWhileSwapping() throws InterruptedException {
+        final Context context = RuntimeEnvironment.application;
+        final AtomicBoolean swapping = new AtomicBoolean(true);
+        final AtomicInteger lookups = new AtomicInteger();
+        final AtomicInteger notifications = new AtomicInteger();
+        CountryData.OnCountryDataChangedListener listener = new CountryData.OnCountryDataChangedListener() {
+            @Override
+            public void onCountryDataChanged(CountryData data) {
+                notifications.incrementAndGet();
+            }
+        };
+        CountryData.addOnCountryDataChangedListener(listener);
+
+        final CountDownLatch started = new CountDownLatch(READERS + 1);
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            readers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    while (swapping.get() && mFailure.get() == null) {
+                        lookUp(context);
+                        lookups.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        //the background validation of the fields runs on the shared executor
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                if (!swapping.get() || mFailure.get() != null)
+                    return;
+                lookUp(context);
+                lookups.incrementAndGet();
+                PhoneFieldExecutor.execute(this);
+            }
+        });
+        for (Thread reader : readers) {
+            reader.start();
+        }
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < SWAPS && mFailure.get() == null; i++) {
+            CountryData.publish(i % 2 == 0 ? mSecond : mFirst);
+            Thread.yield();
+        }
+        swapping.set(false);
+        for (Thread reader : readers) {
+            reader.join(10000);
+        }
+        final CountDownLatch drained = new CountDownLatch(1);
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                drained.countDown();
+            }
+        });
+        assertTrue(drained.await(10, TimeUnit.SECONDS));
+        CountryData.removeOnCountryDataChangedListener(listener);
+
+        assertNull(mFailure.get());
+        assertTrue(lookups.get() > READERS);
+        assertEquals(SWAPS, notifications.get());
+        //SWAPS is even, so the first snapshot is current again and the shared rows follow it
+        assertSame(mFirst, CountryData.getCurrent());
+        CountryRows rows = CountryRows.get(context);
+        assertNotNull(rows.getRow(mFirst.getCountry(mMountainView)));
+        assertEquals(mFirst.getAll().size(), rows.getSortedCountries().size());
+    }
+
+    /**
+     * Looks both numbers up in the snapshot read once, checks the shared rows and the lookups on
+     * the current snapshot, recording the first failure.
+     */
+    private void lookUp(Context context) {
+        try {
+            CountryData data = CountryData.getCurrent();
+            Country mountainView = data.getCountry(mMountainView);
+            Country toronto = data.getCountry(mToronto);
+            String expected = data.getVersion() == 1 ? "us/ca" : "ca/null";
+            assertEquals("version " + data.getVersion(), expected,
+                    mountainView.getCode() + "/" + (toronto != null ? toronto.getCode() : null));
+            assertSame(data.getCountry(mountainView.getCode()), mountainView);
+
+            //the rows are built for one snapshot and complete for it
+            CountryRows rows = CountryRows.get(context);
+            for (Country country : rows.getSortedCountries()) {
+                assertNotNull(country.getCode(), rows.getRow(country));
+            }
+
+            //lookups on whatever is current at the time never fail
+            assertNotNull(CountryLookup.forNumber(mMountainView));
+            assertNotNull(CountryLookup.forCode("ca"));
+        } catch (Throwable t) {
+            mFailure.compareAndSet(null, t);
+        }
+    }
+
+    /**
+     * Copies the countries, giving Canada only the given area codes. Canada is looked up before
+     * the United States, so it wins area codes both have.
+     */
+    private static CountryData withCanadianAreaCodes(Map<Integer, List<Country>> countries, int version,
+                                                     String... areaCodes) {
+        Map<Integer, List<Country>> copy = new HashMap<>(countries);
+        List<Country> nanp = new ArrayList<>();
+        for (Country country : countries.get(1)) {
+            nanp.add(country.getCode().equals("ca") ? new Country("ca", 1, false, Arrays.asList(areaCodes)) : country);
+        }
+        copy.put(1, nanp);
+        return CountryData.fromMap(copy, version);
+    }
+}
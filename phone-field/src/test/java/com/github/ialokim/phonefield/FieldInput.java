@@ -0,0 +1,66 @@
+package com.github.ialokim.phonefield;
+
+import android.text.Editable;
+import android.text.Selection;
+import android.widget.Spinner;
+
+/**
+ * Drives a field the way the keyboard and the country dropdown do, shared by all tests so that
+ * they change the field the same way.
+ */
+final class FieldInput {
+
+    private FieldInput() {
+    }
+
+    /**
+     * Types each character at the cursor, replacing the selection like a keyboard does.
+     *
+     * @param field the field
+     * @param chars the characters to type one after the other
+     */
+    static void type(PhoneField field, CharSequence chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            Editable text = field.getEditText().getText();
+            text.replace(Selection.getSelectionStart(text), Selection.getSelectionEnd(text),
+                    chars.subSequence(i, i + 1));
+        }
+    }
+
+    /**
+     * Presses backspace, deleting the selection or the character in front of the cursor.
+     *
+     * @param field the field
+     * @param times how often backspace is pressed
+     */
+    static void delete(PhoneField field, int times) {
+        for (int i = 0; i < times; i++) {
+            Editable text = field.getEditText().getText();
+            int start = Selection.getSelectionStart(text);
+            int end = Selection.getSelectionEnd(text);
+            if (start == end && start > 0)
+                start--;
+            text.delete(start, end);
+        }
+    }
+
+    /**
+     * Picks a country like the dropdown does. The spinner only reports the selection once it is
+     * laid out, so the listener is called directly.
+     *
+     * @param field the field
+     * @param code  the ISO code of the country
+     * @throws IllegalArgumentException if the dropdown doesn't offer the country
+     */
+    static void pickCountry(PhoneField field, String code) {
+        Spinner spinner = field.getSpinner();
+        for (int i = 0; i < spinner.getCount(); i++) {
+            if (((Country) spinner.getItemAtPosition(i)).getCode().equals(code)) {
+                spinner.setSelection(i);
+                spinner.getOnItemSelectedListener().onItemSelected(spinner, null, i, spinner.getItemIdAtPosition(i));
+                return;
+            }
+        }
+        throw new IllegalArgumentException("unknown country " + code);
+    }
+}
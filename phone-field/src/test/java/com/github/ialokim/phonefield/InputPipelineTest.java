@@ -0,0 +1,90 @@
+package com.github.ialokim.phonefield;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that the input pipeline runs exactly once per keystroke, paste and country change.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InputPipelineTest {
+
+    private PhoneEditText mField;
+
+    private PhoneFieldStats mStats;
+
+    @Before
+    public void setUp() {
+        mField = new PhoneEditText(RuntimeEnvironment.application);
+        mField.setDefaultCountry("de");
+        mField.setAutoFormat(true);
+        mStats = new PhoneFieldStats();
+        mField.setStats(mStats);
+    }
+
+    @Test
+    public void runsOncePerKeystroke() {
+        String digits = "017558585858";
+        for (int i = 0; i < digits.length(); i++) {
+            mStats.reset();
+            FieldInput.type(mField, digits.substring(i, i + 1));
+            assertEquals(1, mStats.getEditCount());
+            assertEquals(1, mStats.getCount(SlowEditLog.STAGE_FORMAT));
+            //the first digit alone can't be parsed
+            assertEquals(i == 0 ? 0 : 1, mStats.getCount(SlowEditLog.STAGE_PARSE));
+        }
+        assertEquals("0175 58585858", mField.getEditText().getText().toString());
+    }
+
+    @Test
+    public void writesTheTextBackOnlyWhenTheFormatChanges() {
+        FieldInput.type(mField, "0175");
+        mStats.reset();
+        FieldInput.type(mField, "5");
+        assertEquals("0175 5", mField.getEditText().getText().toString());
+        assertEquals(1, mStats.getCount(SlowEditLog.STAGE_SET_TEXT));
+        mStats.reset();
+        FieldInput.type(mField, "8");
+        assertEquals(0, mStats.getCount(SlowEditLog.STAGE_SET_TEXT));
+    }
+
+    @Test
+    public void runsOncePerPaste() {
+        mField.setPhoneNumber("Dies ist ein Test mit 017558585858");
+        assertEquals(1, mStats.getEditCount());
+        assertEquals(1, mStats.getCount(SlowEditLog.STAGE_PARSE));
+        assertEquals(1, mStats.getCount(SlowEditLog.STAGE_FORMAT));
+        assertEquals(1, mStats.getCount(SlowEditLog.STAGE_SET_TEXT));
+        assertEquals("0175 58585858", mField.getEditText().getText().toString());
+    }
+
+    @Test
+    public void reformatsOncePerCountryChange() {
+        FieldInput.type(mField, "06641234567");
+        mStats.reset();
+        FieldInput.pickCountry(mField, "at");
+        assertEquals(0, mStats.getEditCount());
+        assertEquals(0, mStats.getCount(SlowEditLog.STAGE_PARSE));
+        assertEquals(1, mStats.getCount(SlowEditLog.STAGE_FORMAT));
+        assertEquals(1, mStats.getCount(SlowEditLog.STAGE_COUNTRY_SWITCH));
+        assertEquals(1, mStats.getCount(SlowEditLog.STAGE_SET_TEXT));
+        assertEquals("0664 1234567", mField.getEditText().getText().toString());
+    }
+
+    @Test
+    public void countryChangeClearingTheInputResetsTheFormatter() {
+        FieldInput.type(mField, "+16502530000");
+        FieldInput.pickCountry(mField, "at");
+        assertEquals("", mField.getEditText().getText().toString());
+        assertEquals("", mField.getRawInput());
+        assertFalse(mField.isValid());
+        assertNull(mField.getPhoneNumberE164());
+    }
+}
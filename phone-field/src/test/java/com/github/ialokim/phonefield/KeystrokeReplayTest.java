@@ -0,0 +1,84 @@
+package com.github.ialokim.phonefield;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Replays recorded typing traces and checks the final state of the field as well as the work the
+ * input pipeline did for it, so that a change doing more work per keystroke fails here.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class KeystrokeReplayTest {
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0}")
+    public static Collection<Object[]> traces() {
+        return Arrays.asList(new Object[][]{
+                {"digits_formatted"},
+                {"digits_plain"},
+                {"digits_input_layout"},
+                {"deletions"},
+                {"edit_in_the_middle"},
+                {"separator_removed"},
+                {"paste"},
+                {"paste_plain"},
+                {"country_switch_autofill"},
+                {"country_switch_reformat"},
+                {"country_switch_clears"},
+        });
+    }
+
+    private final String mName;
+
+    public KeystrokeReplayTest(String name) {
+        mName = name;
+    }
+
+    @Test
+    public void replay() throws IOException {
+        KeystrokeTrace trace = KeystrokeTrace.load(mName);
+        PhoneField field = trace.createField(RuntimeEnvironment.application);
+        PhoneFieldStats stats = new PhoneFieldStats();
+        field.setStats(stats);
+        trace.replay(field);
+        for (Map.Entry<String, String> expected : trace.getExpected().entrySet()) {
+            assertEquals(mName + ": " + expected.getKey() + " (" + stats + ")",
+                    expected.getValue(), getActual(field, stats, expected.getKey()));
+        }
+    }
+
+    private static String getActual(PhoneField field, PhoneFieldStats stats, String name) {
+        switch (name) {
+            case "text":
+                return field.getEditText().getText().toString();
+            case "raw":
+                return field.getRawInput();
+            case "e164":
+                return String.valueOf(field.getPhoneNumberE164());
+            case "country":
+                return ((Country) field.getSpinner().getSelectedItem()).getCode();
+            case "edits":
+                return String.valueOf(stats.getEditCount());
+            case "parses":
+                return String.valueOf(stats.getCount(SlowEditLog.STAGE_PARSE));
+            case "formats":
+                return String.valueOf(stats.getCount(SlowEditLog.STAGE_FORMAT));
+            case "replayedChars":
+                return String.valueOf(stats.getReplayedChars());
+            case "countrySwitches":
+                return String.valueOf(stats.getCount(SlowEditLog.STAGE_COUNTRY_SWITCH));
+            case "setTexts":
+                return String.valueOf(stats.getCount(SlowEditLog.STAGE_SET_TEXT));
+            default:
+                throw new IllegalArgumentException("unknown expectation " + name);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.ialokim.phonefield;
+
+import android.content.ClipData;
+import android.content.ClipboardManager;
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.widget.EditText;
+
+import org.robolectric.fakes.RoboMenuItem;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A recorded typing session, replayed against a new field the way the keyboard and the text
+ * selection menu change the text.
+ * <p>
+ * Traces are text files in the {@code traces} resource directory with one command per line;
+ * empty lines and lines starting with {@code #} are ignored:
+ * <pre>
+ * field PhoneInputLayout      the field to create, PhoneEditText (default) or PhoneInputLayout
+ * country de                  the default country
+ * autoFill on                 autoFill and autoFormat, both are off by default
+ * type 0175                   types each character at the cursor
+ * delete 2                    presses backspace twice
+ * cursor 4                    moves the cursor
+ * paste Call me at 0175 ...   pastes the rest of the line at the cursor
+ * select at                   picks a country in the dropdown
+ * expect text 0175 58585858   the final text, raw input, e164 or country
+ * expect parses 12            the final counters of {@link PhoneFieldStats}
+ * </pre>
+ */
+final class KeystrokeTrace {
+
+    private final String mName;
+
+    private String mField = "PhoneEditText";
+    private String mCountry;
+    private boolean mAutoFill = false;
+    private boolean mAutoFormat = false;
+
+    private final List<String[]> mSteps = new ArrayList<>();
+
+    private final Map<String, String> mExpected = new LinkedHashMap<>();
+
+    private KeystrokeTrace(String name) {
+        mName = name;
+    }
+
+    /**
+     * Loads the trace {@code traces/<name>.trace}.
+     *
+     * @param name the name of the trace
+     * @return the trace
+     * @throws IOException if the trace does not exist or can't be read
+     */
+    static KeystrokeTrace load(String name) throws IOException {
+        InputStream in = KeystrokeTrace.class.getResourceAsStream("traces/" + name + ".trace");
+        if (in == null)
+            throw new FileNotFoundException("traces/" + name + ".trace");
+        KeystrokeTrace trace = new KeystrokeTrace(name);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#"))
+                    continue;
+                trace.parse(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return trace;
+    }
+
+    private void parse(String line) {
+        int space = line.indexOf(' ');
+        String command = space != -1 ? line.substring(0, space) : line;
+        String argument = space != -1 ? line.substring(space + 1) : "";
+        switch (command) {
+            case "field":
+                mField = argument;
+                break;
+            case "country":
+                mCountry = argument;
+                break;
+            case "autoFill":
+                mAutoFill = argument.equals("on");
+                break;
+            case "autoFormat":
+                mAutoFormat = argument.equals("on");
+                break;
+            case "type":
+            case "delete":
+            case "cursor":
+            case "paste":
+            case "select":
+                mSteps.add(new String[]{command, argument});
+                break;
+            case "expect":
+                int split = argument.indexOf(' ');
+                mExpected.put(split != -1 ? argument.substring(0, split) : argument,
+                        split != -1 ? argument.substring(split + 1) : "");
+                break;
+            default:
+                throw new IllegalArgumentException(mName + ": unknown command " + line);
+        }
+    }
+
+    /**
+     * Creates the field the trace was recorded with.
+     *
+     * @param context the context of the test
+     * @return the field, configured but still empty
+     */
+    PhoneField createField(Context context) {
+        PhoneField field;
+        if (mField.equals("PhoneInputLayout")) {
+            //TextInputLayout needs a material theme
+            field = new PhoneInputLayout(new ContextThemeWrapper(context, R.style.Theme_MaterialComponents_Light_NoActionBar));
+        } else if (mField.equals("PhoneEditText")) {
+            field = new PhoneEditText(context);
+        } else {
+            throw new IllegalArgumentException(mName + ": unknown field " + mField);
+        }
+        if (mCountry != null)
+            field.setDefaultCountry(mCountry);
+        field.setAutoFill(mAutoFill);
+        field.setAutoFormat(mAutoFormat);
+        return field;
+    }
+
+    /**
+     * Replays all steps of the trace.
+     *
+     * @param field the field created by {@link #createField(Context)}
+     */
+    void replay(PhoneField field) {
+        EditText editText = field.getEditText();
+        for (String[] step : mSteps) {
+            String argument = step[1];
+            switch (step[0]) {
+                case "type":
+                    FieldInput.type(field, argument);
+                    break;
+                case "delete":
+                    FieldInput.delete(field, Integer.parseInt(argument));
+                    break;
+                case "cursor":
+                    editText.setSelection(Integer.parseInt(argument));
+                    break;
+                case "paste":
+                    paste(editText, argument);
+                    break;
+                case "select":
+                    FieldInput.pickCountry(field, argument);
+                    break;
+                default:
+                    throw new IllegalStateException(step[0]);
+            }
+        }
+    }
+
+    /**
+     * Pastes through the text selection menu, which also notifies the action mode callback.
+     */
+    private static void paste(EditText editText, String text) {
+        ClipboardManager clipboard = (ClipboardManager) editText.getContext().getSystemService(Context.CLIPBOARD_SERVICE);
+        clipboard.setPrimaryClip(ClipData.newPlainText(null, text));
+        editText.getCustomSelectionActionModeCallback().onActionItemClicked(null, new RoboMenuItem(android.R.id.paste));
+        editText.onTextContextMenuItem(android.R.id.paste);
+    }
+
+    /**
+     * Gets the expected final state and counters.
+     *
+     * @return the expected values by name, in the order of the trace
+     */
+    Map<String, String> getExpected() {
+        return mExpected;
+    }
+
+    String getName() {
+        return mName;
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.ialokim.phonefield;
+
+import android.app.Activity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that pasted text is reduced to the number, on a background thread for long text.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PasteTest {
+
+    private PhoneEditText mField;
+
+    private PhoneFieldStats mStats;
+
+    @Before
+    public void setUp() {
+        //the results of the background thread are posted to the attached field
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        mField = new PhoneEditText(activity);
+        mField.setDefaultCountry("de");
+        mField.setAutoFormat(true);
+        activity.setContentView(mField);
+        mStats = new PhoneFieldStats();
+        mField.setStats(mStats);
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @Test
+    public void pastesTheNumberOfShortText() {
+        mField.setPhoneNumber("Dies ist ein Test mit 017558585858");
+        assertEquals("0175 58585858", getText());
+        assertEquals("+4917558585858", mField.getPhoneNumberE164());
+    }
+
+    @Test
+    public void keepsShortTextWithoutNumber() {
+        mField.setPhoneNumber("Room 12, floor 3");
+        assertEquals(1, mStats.getEditCount());
+        assertNull(mField.getPhoneNumberE164());
+    }
+
+    @Test
+    public void extractsTheNumberOfLongTextInBackground() throws InterruptedException {
+        String text = repeat('x', PastedNumberExtractor.ASYNC_THRESHOLD) + " Dies ist ein Test mit 017558585858";
+        mField.setPhoneNumber(text);
+        assertEquals(text, getText());
+        runBackgroundTasks();
+        assertEquals("0175 58585858", getText());
+        assertEquals(2, mStats.getEditCount());
+    }
+
+    @Test
+    public void keepsLongTextWithoutNumber() throws InterruptedException {
+        String text = repeat('x', PastedNumberExtractor.ASYNC_THRESHOLD + 44);
+        mField.setPhoneNumber(text);
+        for (int i = 0; i < 3; i++) {
+            runBackgroundTasks();
+        }
+        assertEquals(text, getText());
+        assertEquals(1, mStats.getEditCount());
+    }
+
+    @Test
+    public void doesNotExtractALongNumberAgain() throws InterruptedException {
+        String digits = repeat('5', PastedNumberExtractor.ASYNC_THRESHOLD + 1);
+        mField.setPhoneNumber("Nummer: " + digits);
+        for (int i = 0; i < 3; i++) {
+            runBackgroundTasks();
+        }
+        //the extracted number is set once and parsed right away, though it is too long as well
+        assertEquals(2, mStats.getEditCount());
+        assertEquals(digits, getText());
+    }
+
+    @Test
+    public void ignoresTheResultIfTheTextChanged() throws InterruptedException {
+        mField.setPhoneNumber(repeat('x', PastedNumberExtractor.ASYNC_THRESHOLD) + " 017558585858");
+        mField.getEditText().setText("030");
+        runBackgroundTasks();
+        assertEquals("030", getText());
+    }
+
+    private String getText() {
+        return mField.getEditText().getText().toString();
+    }
+
+    /**
+     * Waits for the tasks queued on the shared background thread and runs what they posted.
+     */
+    private static void runBackgroundTasks() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        PhoneFieldExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
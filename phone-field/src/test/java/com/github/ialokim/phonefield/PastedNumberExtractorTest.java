@@ -0,0 +1,47 @@
+package com.github.ialokim.phonefield;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PastedNumberExtractorTest {
+
+    @Test
+    public void extractsTheNumberFromText() {
+        assertEquals("017558585858", PastedNumberExtractor.extract("Dies ist ein Test mit 017558585858", "DE"));
+        assertEquals("+49 175 58585858", PastedNumberExtractor.extract("Call me at +49 175 58585858 tomorrow", "DE"));
+        assertEquals("(650) 253-0000", PastedNumberExtractor.extract("Office: (650) 253-0000.", "US"));
+    }
+
+    @Test
+    public void prefersValidNumbersOverLongerRuns() {
+        assertEquals("0175 58585858", PastedNumberExtractor.extract("Order 1234567890123456, phone 0175 58585858", "DE"));
+    }
+
+    @Test
+    public void fallsBackToTheLongestRun() {
+        assertEquals("123 456", PastedNumberExtractor.extract("ref 123 456 or 789", "DE"));
+    }
+
+    @Test
+    public void returnsNullWithoutCandidate() {
+        assertNull(PastedNumberExtractor.extract("Room 12, floor 3", "DE"));
+        assertNull(PastedNumberExtractor.extract("", "DE"));
+        assertNull(PastedNumberExtractor.extract(repeat('x', 300), "DE"));
+    }
+
+    @Test
+    public void scansOnlyTheBeginningOfLongText() {
+        String text = repeat('x', PastedNumberExtractor.MAX_SCAN_LENGTH) + " 017558585858";
+        assertNull(PastedNumberExtractor.extract(text, "DE"));
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
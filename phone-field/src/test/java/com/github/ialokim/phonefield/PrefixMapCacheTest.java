@@ -0,0 +1,85 @@
+package com.github.ialokim.phonefield;
+
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+import com.google.i18n.phonenumbers.prefixmapper.PrefixFileReader;
+
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the bounded prefix file cache against libphonenumber's own reader, which keeps every
+ * file it loaded.
+ */
+public class PrefixMapCacheTest {
+
+    private static final List<String> LANGUAGES = Arrays.asList("en", "de", "fr", "es", "zh");
+
+    @Test
+    public void labelsNorthAmericanNumbersByAreaCode() throws NumberParseException {
+        PrefixMapCache geocoding = new PrefixMapCache(PrefixMapCache.GEOCODING_DIRECTORY, NumberLabels.MAX_FILES);
+        assertEquals("New Jersey", geocoding.lookup(parse("+12015550123"), "en", "US"));
+        assertEquals("Ontario", geocoding.lookup(parse("+14165551234"), "en", "CA"));
+        assertEquals("Mountain View, CA", geocoding.lookup(parse("+16502530000"), "en", "US"));
+        assertEquals(1650, PrefixMapCache.getFilePrefix(parse("+16502530000")));
+        assertEquals(49, PrefixMapCache.getFilePrefix(parse("+4930123456")));
+    }
+
+    @Test
+    public void findsTheDataOnTheClasspath() {
+        assertTrue(new PrefixMapCache(PrefixMapCache.GEOCODING_DIRECTORY, 1).hasData());
+        assertTrue(new PrefixMapCache(PrefixMapCache.CARRIER_DIRECTORY, 1).hasData());
+        assertEquals(null, NumberLabels.getMissingData(PhoneField.LABEL_LOCATION | PhoneField.LABEL_CARRIER));
+    }
+
+    /**
+     * Looks up an example number of every region in several languages with both readers. The
+     * labels have to match, while the cache stays at its bound and well below the heap
+     * libphonenumber's reader retains.
+     */
+    @Test
+    public void matchesLibphonenumberWithBoundedMemory() {
+        PhoneNumberUtil util = PhoneNumberUtil.getInstance();
+        PrefixMapCache geocoding = new PrefixMapCache(PrefixMapCache.GEOCODING_DIRECTORY, NumberLabels.MAX_FILES);
+        PrefixMapCache carriers = new PrefixMapCache(PrefixMapCache.CARRIER_DIRECTORY, NumberLabels.MAX_FILES);
+        PrefixFileReader stockGeocoding = new PrefixFileReader(PrefixMapCache.GEOCODING_DIRECTORY);
+        PrefixFileReader stockCarriers = new PrefixFileReader(PrefixMapCache.CARRIER_DIRECTORY);
+        int labels = 0;
+        for (String region : util.getSupportedRegions()) {
+            for (PhoneNumberUtil.PhoneNumberType type : Arrays.asList(PhoneNumberUtil.PhoneNumberType.FIXED_LINE,
+                    PhoneNumberUtil.PhoneNumberType.MOBILE)) {
+                Phonenumber.PhoneNumber number = util.getExampleNumberForType(region, type);
+                if (number == null)
+                    continue;
+                for (String language : LANGUAGES) {
+                    String location = geocoding.lookup(number, language, region);
+                    assertEquals(region + " " + language, stockGeocoding.getDescriptionForNumber(number, language, "", region), location);
+                    String carrier = carriers.lookup(number, language, region);
+                    assertEquals(region + " " + language, stockCarriers.getDescriptionForNumber(number, language, "", region), carrier);
+                    if (!location.isEmpty() || !carrier.isEmpty())
+                        labels++;
+                }
+            }
+        }
+        assertTrue(labels > 1000);
+        assertTrue(geocoding.size() <= NumberLabels.MAX_FILES);
+        assertTrue(carriers.size() <= NumberLabels.MAX_FILES);
+
+        long bounded = GraphLayout.parseInstance(geocoding, carriers).totalSize();
+        long stock = GraphLayout.parseInstance(stockGeocoding, stockCarriers).totalSize();
+        System.out.println("prefix data retained after " + labels + " labels: bounded " + bounded / 1024
+                + " KiB, libphonenumber " + stock / 1024 + " KiB");
+        assertTrue(bounded * 2 < stock);
+    }
+
+    private static Phonenumber.PhoneNumber parse(String number) throws NumberParseException {
+        return PhoneNumberUtil.getInstance().parse(number, null);
+    }
+}
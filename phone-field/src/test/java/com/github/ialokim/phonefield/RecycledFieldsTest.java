@@ -0,0 +1,136 @@
+package com.github.ialokim.phonefield;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scrolls a long list of fields and checks that the fields are recycled with
+ * {@link PhoneField#bind(String, String)} instead of being created again, and that every bind
+ * parses the number once.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RecycledFieldsTest {
+
+    private static final int ROWS = 300;
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private ListView mList;
+
+    private ContactsAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            numbers.add(String.format("+49175%08d", i));
+        }
+        //ListView recycles its rows through the adapter like a RecyclerView does
+        mList = new ListView(activity);
+        mAdapter = new ContactsAdapter(numbers);
+        mList.setAdapter(mAdapter);
+        activity.setContentView(mList);
+        layout();
+    }
+
+    @Test
+    public void recyclesFieldsWithOneParsePerBind() {
+        int visible = mList.getChildCount();
+        assertTrue(visible > 1);
+        while (mList.getLastVisiblePosition() < ROWS - 1) {
+            mList.scrollListBy(HEIGHT / 3);
+            layout();
+        }
+
+        //only the rows on screen and the ones scrolling in are ever created
+        assertTrue(mAdapter.mCreated + " fields created", mAdapter.mCreated <= visible + 2);
+        assertTrue(mAdapter.mBound >= ROWS);
+        assertEquals(0, mAdapter.mBadBinds);
+        assertEquals(mAdapter.mBound, mAdapter.mStats.getEditCount());
+        assertEquals(mAdapter.mBound, mAdapter.mStats.getCount(SlowEditLog.STAGE_PARSE));
+        assertEquals(mAdapter.mBound, mAdapter.mStats.getCount(SlowEditLog.STAGE_FORMAT));
+
+        //the recycled fields show their current rows
+        for (int i = 0; i < mList.getChildCount(); i++) {
+            PhoneField field = (PhoneField) mList.getChildAt(i);
+            int position = mList.getFirstVisiblePosition() + i;
+            assertEquals(mAdapter.getItem(position), field.getPhoneNumberE164());
+            assertEquals(String.format("0175 %08d", position), field.getEditText().getText().toString());
+        }
+    }
+
+    private void layout() {
+        mList.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mList.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Binds the numbers into recycled fields, counting the created fields and the binds that
+     * didn't parse exactly once.
+     */
+    private static final class ContactsAdapter extends BaseAdapter {
+
+        private final List<String> mNumbers;
+
+        final PhoneFieldStats mStats = new PhoneFieldStats();
+
+        int mCreated = 0;
+        int mBound = 0;
+        int mBadBinds = 0;
+
+        ContactsAdapter(List<String> numbers) {
+            mNumbers = numbers;
+        }
+
+        @Override
+        public int getCount() {
+            return mNumbers.size();
+        }
+
+        @Override
+        public String getItem(int position) {
+            return mNumbers.get(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            PhoneField field = (PhoneField) convertView;
+            if (field == null) {
+                field = new PhoneEditText(parent.getContext());
+                field.setDefaultCountry("de");
+                field.setAutoFormat(true);
+                field.setStats(mStats);
+                mCreated++;
+            }
+            long parses = mStats.getCount(SlowEditLog.STAGE_PARSE);
+            field.bind(mNumbers.get(position), "de");
+            mBound++;
+            if (mStats.getCount(SlowEditLog.STAGE_PARSE) != parses + 1)
+                mBadBinds++;
+            return field;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.ialokim.phonefield;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.SparseArray;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Recreates fields from their saved state like after a rotation and checks that the restored
+ * field is in its final state without parsing or formatting again.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SavedStateTest {
+
+    private static final int FIELD_ID = 42;
+
+    @Test
+    public void restoresFormattedNumberWithoutParsing() {
+        PhoneEditText field = createField();
+        FieldInput.type(field, "017558585858");
+        field.getEditText().setSelection(6);
+
+        PhoneEditText restored = createField();
+        PhoneFieldStats stats = recreate(field, restored);
+        assertEquals(0, stats.getEditCount());
+        assertEquals(0, stats.getCount(SlowEditLog.STAGE_PARSE));
+        assertEquals(0, stats.getCount(SlowEditLog.STAGE_FORMAT));
+        //the country is selected and the text set once, without reformatting
+        assertEquals(1, stats.getCount(SlowEditLog.STAGE_COUNTRY_SWITCH));
+        assertEquals(1, stats.getCount(SlowEditLog.STAGE_SET_TEXT));
+        assertEquals("0175 58585858", restored.getEditText().getText().toString());
+        assertEquals(6, restored.getEditText().getSelectionEnd());
+        assertEquals("017558585858", restored.getRawInput());
+        assertEquals("+4917558585858", restored.getPhoneNumberE164());
+    }
+
+    @Test
+    public void restoresTheSelectedCountry() {
+        PhoneEditText field = createField();
+        FieldInput.type(field, "06641234567");
+        FieldInput.pickCountry(field, "at");
+
+        PhoneEditText restored = createField();
+        PhoneFieldStats stats = recreate(field, restored);
+        assertEquals(0, stats.getCount(SlowEditLog.STAGE_PARSE));
+        assertEquals(0, stats.getCount(SlowEditLog.STAGE_FORMAT));
+        assertEquals(1, stats.getCount(SlowEditLog.STAGE_COUNTRY_SWITCH));
+        assertEquals("at", ((Country) restored.getSpinner().getSelectedItem()).getCode());
+        assertEquals("0664 1234567", restored.getEditText().getText().toString());
+        assertEquals("+436641234567", restored.getPhoneNumberE164());
+    }
+
+    @Test
+    public void keepsFormattingStopped() {
+        PhoneEditText field = createField();
+        FieldInput.type(field, "017558585858");
+        //deleting the separator stops the formatting
+        field.getEditText().setSelection(5);
+        field.getEditText().getText().delete(4, 5);
+
+        PhoneEditText restored = createField();
+        PhoneFieldStats stats = recreate(field, restored);
+        assertEquals(0, stats.getCount(SlowEditLog.STAGE_PARSE));
+        assertEquals("017558585858", restored.getEditText().getText().toString());
+        //typed at the restored cursor and still not formatted
+        FieldInput.type(restored, "9");
+        assertEquals("0175958585858", restored.getEditText().getText().toString());
+    }
+
+    @Test
+    public void continuesTypingWithOneParsePerKeystroke() {
+        PhoneEditText field = createField();
+        FieldInput.type(field, "01755858585");
+
+        PhoneEditText restored = createField();
+        PhoneFieldStats stats = recreate(field, restored);
+        FieldInput.type(restored, "8");
+        assertEquals(1, stats.getEditCount());
+        assertEquals(1, stats.getCount(SlowEditLog.STAGE_PARSE));
+        assertEquals(1, stats.getCount(SlowEditLog.STAGE_FORMAT));
+        assertEquals("0175 58585858", restored.getEditText().getText().toString());
+        assertEquals("+4917558585858", restored.getPhoneNumberE164());
+    }
+
+    private static PhoneEditText createField() {
+        PhoneEditText field = new PhoneEditText(RuntimeEnvironment.application);
+        field.setId(FIELD_ID);
+        field.setDefaultCountry("de");
+        field.setAutoFormat(true);
+        return field;
+    }
+
+    /**
+     * Saves the state of one field, passes it through a parcel and restores it into the other,
+     * counting the work done by the restore.
+     */
+    @SuppressWarnings("unchecked")
+    private static PhoneFieldStats recreate(PhoneField field, PhoneField restored) {
+        SparseArray<Parcelable> container = new SparseArray<>();
+        field.saveHierarchyState(container);
+        Parcel parcel = Parcel.obtain();
+        parcel.writeSparseArray((SparseArray) container);
+        parcel.setDataPosition(0);
+        SparseArray<Parcelable> read = (SparseArray<Parcelable>) parcel.readSparseArray(PhoneField.class.getClassLoader());
+        parcel.recycle();
+
+        PhoneFieldStats stats = new PhoneFieldStats();
+        restored.setStats(stats);
+        restored.restoreHierarchyState(read);
+        return stats;
+    }
+}